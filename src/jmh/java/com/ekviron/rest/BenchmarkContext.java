@@ -0,0 +1,27 @@
+package com.ekviron.rest;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application without a web server for benchmarks of the service and data layers.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties extra {@code key=value} properties, e.g. to switch off caches that would hide the database
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(RestApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .properties("spring.main.banner-mode=off", "logging.level.root=warn")
+            .properties(properties)
+            .run();
+    }
+
+}
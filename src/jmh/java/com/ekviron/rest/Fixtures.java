@@ -0,0 +1,53 @@
+package com.ekviron.rest;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.ProductDto;
+import com.ekviron.rest.model.CatalogProduct;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.Product;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders shaped like the ones the API receives.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static OrderDto orderDto(String seller, int productCount) {
+        OrderDto order = new OrderDto();
+        order.setSeller(seller);
+        order.setCustomer("987654321");
+        List<ProductDto> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            ProductDto product = new ProductDto();
+            product.setName("product " + i);
+            product.setCode(String.format("%013d", i));
+            products.add(product);
+        }
+        order.setProducts(products);
+        return order;
+    }
+
+    /**
+     * Order as it comes out of the database, with ids set.
+     */
+    public static Order order(long id, int productCount) {
+        Order order = new Order();
+        order.setId(id);
+        order.setSeller("123456789");
+        order.setCustomer("987654321");
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId(id * 1000 + i);
+            product.setCatalogProduct(new CatalogProduct(String.format("%013d", i), "product " + i));
+            products.add(product);
+        }
+        order.setProducts(products);
+        return order;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.ekviron.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Time to first request: boots the application with the web server and reads the first orders page, once per fresh
+ * JVM. Compares the default settings with the {@code perf} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"default", "perf"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public int bootAndFirstRequest() throws IOException {
+        context = new SpringApplicationBuilder(RestApplication.class)
+            .logStartupInfo(false)
+            .profiles(profile)
+            .properties("spring.main.banner-mode=off", "logging.level.root=warn", "server.port=0")
+            .run();
+        URL url = new URL("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+            + "/api/v1/orders?limit=1");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            while (in.read() != -1) {
+                // drain the body, the request is done when it's read
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+}
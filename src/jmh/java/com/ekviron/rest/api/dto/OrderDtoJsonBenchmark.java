@@ -0,0 +1,61 @@
+package com.ekviron.rest.api.dto;
+
+import com.ekviron.rest.Fixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson writing and reading of orders by number of products, with an object mapper built the way Spring Boot does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderDtoJsonBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int products;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private OrderDto order;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(OrderDto.class);
+        reader = objectMapper.readerFor(OrderDto.class);
+        order = Fixtures.orderDto("123456789", products);
+        json = writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public OrderDto read() throws IOException {
+        return reader.readValue(json);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.ekviron.rest.api.dto;
+
+import com.ekviron.rest.Fixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON versus CBOR, plain and gzipped as the server compression would send them. Times writing and reading, the
+ * bytes on wire per order are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderDtoWireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"10", "100", "1000"})
+    public int products;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private OrderDto order;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper objectMapper = "cbor".equals(format)
+            ? builder.factory(new CBORFactory()).build()
+            : builder.build();
+        writer = objectMapper.writerFor(OrderDto.class);
+        reader = objectMapper.readerFor(OrderDto.class);
+        order = Fixtures.orderDto("123456789", products);
+        encoded = writer.writeValueAsBytes(order);
+        System.out.printf("%n%s, %d products: %d bytes, %d bytes gzipped%n",
+            format, products, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] writeGzipped() throws IOException {
+        return gzip(writer.writeValueAsBytes(order));
+    }
+
+    @Benchmark
+    public OrderDto read() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+}
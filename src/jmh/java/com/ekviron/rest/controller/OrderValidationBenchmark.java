@@ -0,0 +1,89 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.Fixtures;
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.Product;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+/**
+ * Validation of a valid order by number of products: bean validation of the DTO as the controller did it, bean
+ * validation of the entities as JPA did it at pre-persist, and {@link OrderDtoValidator}. The cost per product is the
+ * score divided by {@code products}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderValidationBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int products;
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private OrderDtoValidator orderDtoValidator;
+    private OrderDto orderDto;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+        orderDtoValidator = new OrderDtoValidator();
+        orderDto = Fixtures.orderDto("123456789", products);
+        order = Fixtures.order(1, products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<OrderDto>> beanValidation() {
+        return beanValidator.validate(orderDto);
+    }
+
+    /**
+     * Every persisted entity is validated on its own.
+     */
+    @Benchmark
+    public void beanValidationOfEntities(Blackhole blackhole) {
+        blackhole.consume(beanValidator.validate(order));
+        for (Product product : order.getProducts()) {
+            blackhole.consume(beanValidator.validate(product));
+        }
+    }
+
+    @Benchmark
+    public BindingResult handWritten() {
+        BindingResult result = new BeanPropertyBindingResult(orderDto, "orderDto");
+        orderDtoValidator.validate(orderDto, result);
+        return result;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.ekviron.rest.errorhandling;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import com.ekviron.rest.Fixtures;
+import com.ekviron.rest.api.dto.OrderDto;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Building and writing error responses: a plain not found and a validation error with sub errors through Jackson,
+ * and the fixed shape errors through {@link ErrorTemplate}. Run with {@code -PjmhProfilers=gc} to compare the
+ * garbage per error ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorJsonBenchmark {
+
+    private static final String NOT_FOUND_MESSAGE = "Order was not found for parameters {id=42}";
+    private static final String MALFORMED_DEBUG_MESSAGE = "JSON parse error: Unexpected character ('}' (code 125)): "
+        + "was expecting double-quote to start field name";
+
+    private ObjectWriter writer;
+    private ErrorTemplate notFoundTemplate;
+    private ErrorTemplate badRequestTemplate;
+    private Set<ConstraintViolation<OrderDto>> violations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(Error.class);
+        notFoundTemplate = new ErrorTemplate(NOT_FOUND);
+        badRequestTemplate = new ErrorTemplate(BAD_REQUEST);
+        try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            // too short seller and customer, blank product name
+            OrderDto order = Fixtures.orderDto("1234", 1);
+            order.setCustomer("1");
+            order.getProducts().get(0).setName("");
+            violations = validatorFactory.getValidator().validate(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] notFound() throws IOException {
+        Error error = new Error(NOT_FOUND);
+        error.setMessage(NOT_FOUND_MESSAGE);
+        return writer.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public byte[] notFoundTemplate() {
+        return notFoundTemplate.render(NOT_FOUND_MESSAGE, null);
+    }
+
+    @Benchmark
+    public byte[] malformed() throws IOException {
+        Error error = new Error(BAD_REQUEST);
+        error.setMessage("Malformed JSON request");
+        error.setDebugMessage(MALFORMED_DEBUG_MESSAGE);
+        return writer.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public byte[] malformedTemplate() {
+        return badRequestTemplate.render("Malformed JSON request", MALFORMED_DEBUG_MESSAGE);
+    }
+
+    @Benchmark
+    public byte[] validation() throws IOException {
+        Error error = new Error(BAD_REQUEST);
+        error.setMessage("Validation error");
+        error.addValidationErrors(violations);
+        return writer.writeValueAsBytes(error);
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.ekviron.rest.exception;
+
+import com.ekviron.rest.model.Order;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the not found exception thrown on every unknown id, compared to a plain exception with a stack trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntityNotFoundExceptionBenchmark {
+
+    public String id = "42";
+
+    @Benchmark
+    public RuntimeException entityNotFound() {
+        return new EntityNotFoundException(Order.class, "id", id);
+    }
+
+    @Benchmark
+    public RuntimeException withStackTrace() {
+        return new IllegalStateException("Order was not found for parameters {id=" + id + "}");
+    }
+
+}
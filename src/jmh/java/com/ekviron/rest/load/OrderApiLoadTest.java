@@ -0,0 +1,180 @@
+package com.ekviron.rest.load;
+
+import com.ekviron.rest.Fixtures;
+import com.ekviron.rest.RestApplication;
+import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Closed-loop load test of the order API per execution mode: every client sends its next request as soon as the
+ * previous one is answered. 90% of the requests read an order by id, 10% create one. Prints throughput and latency
+ * percentiles per mode.
+ *
+ * <p>Run with {@code ./gradlew loadTest -Dload.clients=1000 -Dload.seconds=60}. Extra application properties, e.g. a
+ * datasource of a real database, go to {@code -Dload.properties=key=value,key=value}.
+ */
+public final class OrderApiLoadTest {
+
+    private static final int STORED_ORDERS = 10_000;
+    private static final int WRITE_PERCENT = 10;
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final int clients;
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final String[] properties;
+
+    private OrderApiLoadTest(int clients, long warmupSeconds, long measureSeconds, String[] properties) {
+        this.clients = clients;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.measureNanos = TimeUnit.SECONDS.toNanos(measureSeconds);
+        this.properties = properties;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 1000);
+        // the JDK keeps 5 idle connections per host by default, every client needs its own
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+        String extra = System.getProperty("load.properties", "");
+        OrderApiLoadTest test = new OrderApiLoadTest(
+            clients,
+            Long.getLong("load.warmupSeconds", 10),
+            Long.getLong("load.seconds", 30),
+            extra.isEmpty() ? new String[0] : extra.split(",")
+        );
+
+        System.out.printf("%-10s %8s %12s %10s %10s %10s %10s %8s%n",
+            "mode", "clients", "requests/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (String mode : System.getProperty("load.modes", "blocking,offload").split(",")) {
+            test.run(mode.trim());
+        }
+    }
+
+    private void run(String mode) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RestApplication.class)
+            .logStartupInfo(false)
+            .properties(
+                "spring.main.banner-mode=off",
+                "logging.level.root=warn",
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:load_" + mode + ";DB_CLOSE_DELAY=-1",
+                // every read has to reach the database
+                "ekviron.orders.cache.type=none",
+                // all clients share one address, the modes are compared without shedding
+                "ekviron.limits.enabled=false",
+                "ekviron.execution.mode=" + mode)
+            .properties(properties)
+            .run()) {
+            Long[] ids = seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/api/v1/orders";
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+            LongAdder errors = new LongAdder();
+            AtomicLong sellers = new AtomicLong(STORED_ORDERS);
+            long start = System.nanoTime();
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + measureNanos;
+
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            for (int i = 0; i < clients; i++) {
+                pool.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        boolean ok;
+                        try {
+                            ok = random.nextInt(100) < WRITE_PERCENT
+                                ? post(baseUrl, objectMapper.writeValueAsBytes(
+                                    Fixtures.orderDto(String.format("%09d", sellers.incrementAndGet()), 3)))
+                                : get(baseUrl + "/" + ids[random.nextInt(ids.length)]);
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long done = System.nanoTime();
+                        if (now >= measureFrom) {
+                            long micros = TimeUnit.NANOSECONDS.toMicros(done - now);
+                            recorder.recordValue(Math.max(1, Math.min(MAX_LATENCY_MICROS, micros)));
+                            if (!ok) {
+                                errors.increment();
+                            }
+                        }
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(measureNanos + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS);
+
+            Histogram histogram = recorder.getIntervalHistogram();
+            double seconds = measureNanos / 1e9;
+            System.out.printf("%-10s %8d %12.0f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                mode, clients, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                errors.sum());
+        }
+    }
+
+    private static Long[] seed(ConfigurableApplicationContext context) {
+        OrderService service = context.getBean(OrderService.class);
+        OrderMapper mapper = context.getBean(OrderMapper.class);
+        Long[] ids = new Long[STORED_ORDERS];
+        for (int i = 0; i < STORED_ORDERS; i++) {
+            ids[i] = service.create(mapper.orderDtoToOrder(Fixtures.orderDto(String.format("%09d", i), 3))).getId();
+        }
+        return ids;
+    }
+
+    private static boolean get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        return drain(connection);
+    }
+
+    private static boolean post(String url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return drain(connection);
+    }
+
+    /**
+     * Reads the whole response, so the connection goes back to the keep-alive pool.
+     */
+    private static boolean drain(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            try (InputStream body = in) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) != -1) {
+                    // discard
+                }
+            }
+        }
+        return status == 200;
+    }
+
+}
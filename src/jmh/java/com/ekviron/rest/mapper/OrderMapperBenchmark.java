@@ -0,0 +1,72 @@
+package com.ekviron.rest.mapper;
+
+import com.ekviron.rest.Fixtures;
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.model.Order;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * MapStruct conversions in both directions by number of products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int products;
+
+    private AnnotationConfigApplicationContext context;
+    private OrderMapper mapper;
+    private ProductMapper productMapper;
+    private Order order;
+    private OrderDto orderDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // generated mappers get the product mapper injected by spring
+        context = new AnnotationConfigApplicationContext(OrderMapperImpl.class, ProductMapperImpl.class);
+        mapper = context.getBean(OrderMapper.class);
+        productMapper = context.getBean(ProductMapper.class);
+        order = Fixtures.order(1L, products);
+        orderDto = Fixtures.orderDto("123456789", products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDto orderToOrderDto() {
+        return mapper.orderToOrderDto(order);
+    }
+
+    @Benchmark
+    public Order orderDtoToOrder() {
+        return mapper.orderDtoToOrder(orderDto);
+    }
+
+    @Benchmark
+    public Object productToProductDto() {
+        return productMapper.productToProductDto(order.getProducts().get(0));
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.ekviron.rest.model;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Order insert throughput of the statements Hibernate issues per id strategy, one transaction per 100 orders with 3
+ * products each. IDENTITY inserts every order on its own to read the generated key back; POOLED reads the sequence
+ * once per allocation and sends orders and products as JDBC batches. Results are orders per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderIdStrategyBenchmark {
+
+    private static final int ORDERS = 100;
+    private static final int PRODUCTS = 3;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    public enum Strategy {
+        IDENTITY,
+        POOLED
+    }
+
+    @Param({"IDENTITY", "POOLED"})
+    public Strategy strategy;
+
+    @Param({"50"})
+    public int allocationSize;
+
+    private Connection connection;
+    private long orderId;
+    private long orderHi;
+    private long productId;
+    private long productHi;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:id_strategy;DB_CLOSE_DELAY=-1", "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create sequence order_seq start with 1 increment by " + allocationSize);
+            statement.execute("create sequence product_seq start with 1 increment by " + allocationSize);
+            statement.execute("create table order_t (id bigint generated by default as identity, "
+                + "seller varchar(9), customer varchar(9), primary key (id))");
+            // lines reference a catalog entry, the catalog itself is not written here
+            statement.execute("create table product_t (id bigint not null, catalog_id bigint, order_id bigint, "
+                + "primary key (id))");
+        }
+        connection.commit();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("truncate table product_t");
+            statement.execute("truncate table order_t");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void insert() throws SQLException {
+        try (
+            PreparedStatement orders = strategy == Strategy.IDENTITY
+                ? connection.prepareStatement("insert into order_t (seller, customer) values (?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement("insert into order_t (id, seller, customer) values (?, ?, ?)");
+            PreparedStatement products = connection.prepareStatement(
+                "insert into product_t (id, catalog_id, order_id) values (?, ?, ?)")
+        ) {
+            for (int i = 0; i < ORDERS; i++) {
+                long id = strategy == Strategy.IDENTITY ? insertIdentity(orders, i) : addPooled(orders, i);
+                for (int j = 0; j < PRODUCTS; j++) {
+                    products.setLong(1, nextProductId());
+                    products.setLong(2, j + 1L);
+                    products.setLong(3, id);
+                    products.addBatch();
+                }
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    if (strategy == Strategy.POOLED) {
+                        orders.executeBatch();
+                    }
+                    products.executeBatch();
+                }
+            }
+            if (strategy == Strategy.POOLED) {
+                orders.executeBatch();
+            }
+            products.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private long insertIdentity(PreparedStatement orders, int i) throws SQLException {
+        orders.setString(1, seller(i));
+        orders.setString(2, "000000001");
+        orders.executeUpdate();
+        try (ResultSet keys = orders.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private long addPooled(PreparedStatement orders, int i) throws SQLException {
+        if (orderId == orderHi) {
+            orderHi = nextValue("order_seq");
+            orderId = orderHi - allocationSize;
+        }
+        long id = ++orderId;
+        orders.setLong(1, id);
+        orders.setString(2, seller(i));
+        orders.setString(3, "000000001");
+        orders.addBatch();
+        return id;
+    }
+
+    private long nextProductId() throws SQLException {
+        // products used a pooled sequence under both strategies
+        if (productId == productHi) {
+            productHi = nextValue("product_seq");
+            productId = productHi - allocationSize;
+        }
+        return ++productId;
+    }
+
+    private long nextValue(String sequence) throws SQLException {
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select next value for " + sequence)
+        ) {
+            resultSet.next();
+            // sequences start with 1, shift so blocks are (hi - allocation, hi]
+            return resultSet.getLong(1) + allocationSize - 1;
+        }
+    }
+
+    private static String seller(int i) {
+        return String.format("%09d", i);
+    }
+
+}
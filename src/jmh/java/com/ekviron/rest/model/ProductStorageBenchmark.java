@@ -0,0 +1,238 @@
+package com.ekviron.rest.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Product line inserts per storage layout, one transaction per 100 orders of 1 to 9 lines. Lines are drawn from a
+ * catalog of {@code catalogSize} codes with skewed popularity: a few codes are in most orders, most codes are rare.
+ * COPIES stores name and code on every line as before the catalog; CATALOG stores them once per code and resolves
+ * codes from memory, inserting new ones as a batch before the lines like ProductCatalogService. Results are orders per
+ * second; table size and bytes sent per line are printed after every iteration, the tables grow over the whole trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductStorageBenchmark {
+
+    private static final int ORDERS = 100;
+    private static final int MAX_LINES = 9;
+    // zipf exponent of code popularity, about what basket data shows
+    private static final double SKEW = 1.0;
+    private static final String[] KINDS = {
+        "whole milk 1l", "rye bread sliced", "cheddar cheese mature", "orange juice not from concentrate",
+        "green tea 20 bags", "dark chocolate 70%", "fusilli pasta", "extra virgin olive oil"
+    };
+
+    public enum Layout {
+        COPIES,
+        CATALOG
+    }
+
+    @Param({"COPIES", "CATALOG"})
+    public Layout layout;
+
+    @Param({"20000"})
+    public int catalogSize;
+
+    private final Map<String, Long> catalogIds = new HashMap<>();
+
+    private Path directory;
+    private Connection connection;
+    private String[] codes;
+    private String[] names;
+    private double[] cumulativePopularity;
+    private Random random;
+    private long lineId;
+    private long catalogId;
+    private long orderId;
+    private long lines;
+    private long sentBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        // on disk, the size of an in-memory table is not reported
+        directory = Files.createTempDirectory("product_storage");
+        connection = DriverManager.getConnection("jdbc:h2:" + directory.resolve("db").toAbsolutePath(), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (layout == Layout.COPIES) {
+                statement.execute("create table product_t (id bigint not null, name varchar(255), code varchar(13), "
+                    + "order_id bigint, primary key (id))");
+                statement.execute("create index product_code_idx on product_t (code)");
+            } else {
+                statement.execute("create table catalog_product (id bigint not null, code varchar(13) not null, "
+                    + "name varchar(255) not null, primary key (id))");
+                statement.execute("alter table catalog_product add constraint catalog_product_code_uk unique (code)");
+                statement.execute("create table product_t (id bigint not null, catalog_id bigint not null, "
+                    + "order_id bigint, primary key (id))");
+                statement.execute("create index product_catalog_idx on product_t (catalog_id)");
+            }
+            statement.execute("create index product_order_idx on product_t (order_id)");
+        }
+        connection.commit();
+
+        Random dataset = new Random(42);
+        codes = new String[catalogSize];
+        names = new String[catalogSize];
+        cumulativePopularity = new double[catalogSize];
+        double total = 0;
+        for (int i = 0; i < catalogSize; i++) {
+            codes[i] = String.format("40%011d", i * 7919L);
+            names[i] = "Brand " + dataset.nextInt(500) + " " + KINDS[dataset.nextInt(KINDS.length)];
+            total += 1 / Math.pow(i + 1, SKEW);
+            cumulativePopularity[i] = total;
+        }
+        // same orders for both layouts
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStorage() throws SQLException {
+        long tableBytes = diskSpaceUsed("PRODUCT_T")
+            + (layout == Layout.CATALOG ? diskSpaceUsed("CATALOG_PRODUCT") : 0);
+        System.out.printf("%n%s: %d lines, %d catalog entries, %.1f stored and %.1f sent bytes per line%n",
+            layout, lines, catalogIds.size(), (double) tableBytes / lines, (double) sentBytes / lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects delete files");
+        }
+        connection.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void insert() throws SQLException {
+        int[][] orders = nextOrders();
+        if (layout == Layout.COPIES) {
+            insertCopies(orders);
+        } else {
+            insertCatalog(orders);
+        }
+        connection.commit();
+    }
+
+    private void insertCopies(int[][] orders) throws SQLException {
+        try (PreparedStatement products = connection.prepareStatement(
+            "insert into product_t (id, name, code, order_id) values (?, ?, ?, ?)")) {
+            for (int[] order : orders) {
+                long id = ++orderId;
+                for (int product : order) {
+                    products.setLong(1, ++lineId);
+                    products.setString(2, names[product]);
+                    products.setString(3, codes[product]);
+                    products.setLong(4, id);
+                    products.addBatch();
+                    sentBytes += Long.BYTES * 2 + names[product].length() + codes[product].length();
+                }
+                lines += order.length;
+            }
+            products.executeBatch();
+        }
+    }
+
+    private void insertCatalog(int[][] orders) throws SQLException {
+        try (PreparedStatement catalog = connection.prepareStatement(
+            "insert into catalog_product (id, code, name) values (?, ?, ?)")) {
+            boolean inserted = false;
+            for (int[] order : orders) {
+                for (int product : order) {
+                    if (!catalogIds.containsKey(codes[product])) {
+                        catalogIds.put(codes[product], ++catalogId);
+                        catalog.setLong(1, catalogId);
+                        catalog.setString(2, codes[product]);
+                        catalog.setString(3, names[product]);
+                        catalog.addBatch();
+                        sentBytes += Long.BYTES + codes[product].length() + names[product].length();
+                        inserted = true;
+                    }
+                }
+            }
+            if (inserted) {
+                catalog.executeBatch();
+            }
+        }
+        try (PreparedStatement products = connection.prepareStatement(
+            "insert into product_t (id, catalog_id, order_id) values (?, ?, ?)")) {
+            for (int[] order : orders) {
+                long id = ++orderId;
+                for (int product : order) {
+                    products.setLong(1, ++lineId);
+                    products.setLong(2, catalogIds.get(codes[product]));
+                    products.setLong(3, id);
+                    products.addBatch();
+                    sentBytes += Long.BYTES * 3;
+                }
+                lines += order.length;
+            }
+            products.executeBatch();
+        }
+    }
+
+    private int[][] nextOrders() {
+        int[][] orders = new int[ORDERS][];
+        for (int i = 0; i < ORDERS; i++) {
+            int[] order = new int[1 + random.nextInt(MAX_LINES)];
+            for (int j = 0; j < order.length; j++) {
+                order[j] = nextProduct();
+            }
+            orders[i] = order;
+        }
+        return orders;
+    }
+
+    private int nextProduct() {
+        double point = random.nextDouble() * cumulativePopularity[catalogSize - 1];
+        int index = Arrays.binarySearch(cumulativePopularity, point);
+        return index >= 0 ? index : Math.min(-index - 1, catalogSize - 1);
+    }
+
+    private long diskSpaceUsed(String table) throws SQLException {
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select disk_space_used('" + table + "')")
+        ) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.ekviron.rest.service;
+
+import com.ekviron.rest.BenchmarkContext;
+import com.ekviron.rest.model.Order;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * First page of seller and customer lookups as the order table grows. Every seller has {@code orders / 1000} orders,
+ * every customer has 1000 orders, each order has one product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderLookupBenchmark {
+
+    private static final int SELLERS = 1000;
+    private static final int INSERT_CHUNK = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderService service;
+    private String[] sellers;
+    private String[] customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ekviron.orders.cache.type=none");
+        service = context.getBean(OrderService.class);
+
+        sellers = new String[SELLERS];
+        for (int i = 0; i < SELLERS; i++) {
+            sellers[i] = String.format("%09d", i);
+        }
+        customers = new String[orders / SELLERS];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = String.format("%09d", i);
+        }
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < orders; from += INSERT_CHUNK) {
+            int start = from;
+            int size = Math.min(INSERT_CHUNK, orders - from);
+            jdbc.batchUpdate("insert into order_t (id, seller, customer) values (?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int order = start + i;
+                        ps.setLong(1, order + 1L);
+                        ps.setString(2, sellers[order % SELLERS]);
+                        ps.setString(3, customers[order / SELLERS]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                });
+        }
+        jdbc.update("insert into catalog_product (id, code, name) values (1, '1234567890123', 'milk')");
+        jdbc.update("insert into product_t (id, catalog_id, order_id) select id, 1, id from order_t");
+        jdbc.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Order> bySeller() {
+        return service.getOrdersBySeller(sellers[ThreadLocalRandom.current().nextInt(sellers.length)], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Slice<Order> byCustomer() {
+        return service.getOrdersByCustomer(
+            customers[ThreadLocalRandom.current().nextInt(customers.length)], 0, PAGE_SIZE);
+    }
+
+}
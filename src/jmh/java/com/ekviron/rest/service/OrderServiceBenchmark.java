@@ -0,0 +1,81 @@
+package com.ekviron.rest.service;
+
+import com.ekviron.rest.BenchmarkContext;
+import com.ekviron.rest.Fixtures;
+import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.model.Order;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * OrderService against the embedded H2 database, with the order cache off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderServiceBenchmark {
+
+    private static final int STORED_ORDERS = 1000;
+
+    @Param({"1", "10", "100"})
+    public int products;
+
+    private final AtomicLong sellers = new AtomicLong(STORED_ORDERS);
+
+    private ConfigurableApplicationContext context;
+    private OrderService service;
+    private OrderMapper mapper;
+    private Long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ekviron.orders.cache.type=none");
+        service = context.getBean(OrderService.class);
+        mapper = context.getBean(OrderMapper.class);
+        ids = new Long[STORED_ORDERS];
+        for (int i = 0; i < STORED_ORDERS; i++) {
+            ids[i] = service.create(newOrder(i)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order findById() {
+        return service.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Long createAndDelete() {
+        Long id = service.create(newOrder(sellers.incrementAndGet())).getId();
+        service.delete(id);
+        return id;
+    }
+
+    private Order newOrder(long seller) {
+        // seller is unique per order to pass the (seller, customer) constraint
+        return mapper.orderDtoToOrder(Fixtures.orderDto(String.format("%09d", seller), products));
+    }
+
+}
@@ -1,6 +1,12 @@
 package com.ekviron.rest.api;
 
+import com.ekviron.rest.api.dto.OrderBatchDeleteResultDto;
+import com.ekviron.rest.api.dto.OrderBatchResultDto;
 import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.OrderEventPageDto;
+import com.ekviron.rest.api.dto.OrderPageDto;
+import com.ekviron.rest.api.dto.OrderPatchDto;
+import com.ekviron.rest.api.dto.OrderStatsDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -8,45 +14,206 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Order", description = "the Order API")
 @RestController
 @RequestMapping("/api/v1")
 public interface OrderControllerV1 {
 
-    @Operation(summary = "Show all orders", description = "Return all exists orders", tags = {"Order"})
-    @ApiResponse(content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderDto.class))))
+    @Operation(summary = "Show orders page", description = "Return orders page sorted by id", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderPageDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag")
+    @ApiResponse(responseCode = "400", description = "Invalid limit or cursor")
     @GetMapping("/orders")
-    List<OrderDto> getOrders();
+    ResponseEntity<OrderPageDto> getOrders(
+        @Parameter(description = "Max page size.")
+        @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(1000) int limit,
+        @Parameter(description = "Cursor returned as 'next' by the previous page. Empty for the first page.")
+        @RequestParam(value = "after", required = false) String after,
+        @Parameter(description = "full, or summary for orders without products.")
+        @RequestParam(value = "view", defaultValue = "full") @Pattern(regexp = "full|summary") String view,
+        @Parameter(description = "ETag of the page held by the client.")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    );
+
+    @Operation(summary = "Show orders page of the seller", description = "Return orders page of the seller sorted "
+        + "by id", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderPageDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Invalid seller, limit or cursor")
+    @GetMapping("/sellers/{seller}/orders")
+    OrderPageDto getOrdersBySeller(
+        @Parameter(description = "Unique identifier of the Seller.", required = true, example = "123456789")
+        @PathVariable("seller") @Size(min = 9, max = 9) String seller,
+        @Parameter(description = "Max page size.")
+        @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(1000) int limit,
+        @Parameter(description = "Cursor returned as 'next' by the previous page. Empty for the first page.")
+        @RequestParam(value = "after", required = false) String after
+    );
+
+    @Operation(summary = "Show orders page of the customer", description = "Return orders page of the customer "
+        + "sorted by id", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderPageDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Invalid customer, limit or cursor")
+    @GetMapping("/customers/{customer}/orders")
+    OrderPageDto getOrdersByCustomer(
+        @Parameter(description = "Unique identifier of the Customer.", required = true, example = "123456789")
+        @PathVariable("customer") @Size(min = 9, max = 9) String customer,
+        @Parameter(description = "Max page size.")
+        @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(1000) int limit,
+        @Parameter(description = "Cursor returned as 'next' by the previous page. Empty for the first page.")
+        @RequestParam(value = "after", required = false) String after
+    );
+
+    @Operation(summary = "Stream all orders", description = "Return all exists orders as one JSON array "
+        + "written while reading from the database", tags = {"Order"})
+    @ApiResponse(content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderDto.class))))
+    @GetMapping("/orders:stream")
+    ResponseEntity<StreamingResponseBody> streamOrders();
+
+    @Operation(summary = "Follow order changes", description = "Return created, updated and deleted events after the "
+        + "offset. Without any the request waits for the first ones up to the given seconds", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderEventPageDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Invalid offset, limit or wait")
+    @GetMapping("/orders:feed")
+    CompletableFuture<OrderEventPageDto> getOrderEvents(
+        @Parameter(description = "Offset returned as 'next' by the previous call, 0 for all retained events.")
+        @RequestParam(value = "after", defaultValue = "0") @Min(0) long after,
+        @Parameter(description = "Max events.")
+        @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(1000) int limit,
+        @Parameter(description = "Seconds to wait for events, 0 to return right away.")
+        @RequestParam(value = "wait", defaultValue = "30") @Min(0) @Max(60) int wait
+    );
+
+    @Operation(summary = "Show order statistics", description = "Return order and product totals, top sellers and "
+        + "product codes and the distribution of products per order", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderStatsDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Invalid top")
+    @GetMapping("/orders:stats")
+    OrderStatsDto getOrderStats(
+        @Parameter(description = "Size of the top sellers and product codes lists.")
+        @RequestParam(value = "top", defaultValue = "10") @Min(1) @Max(100) int top
+    );
+
+    @Operation(summary = "Export all orders", description = "Return all exists orders as NDJSON, one order per "
+        + "line, or CSV, one product per line. Compressed with gzip when the client accepts it", tags = {"Order"})
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Unknown format")
+    @GetMapping("/orders:export")
+    ResponseEntity<StreamingResponseBody> exportOrders(
+        @Parameter(description = "Export format, ndjson or csv.")
+        @RequestParam(value = "format", defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String format,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    );
 
     @Operation(summary = "Find order by ID", description = "Returns a single order", tags = {"Order"})
     @ApiResponse(content = @Content(schema = @Schema(implementation = OrderDto.class)))
     @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag")
     @ApiResponse(responseCode = "404", description = "Not found")
     @GetMapping("/orders/{id}")
-    OrderDto getOrderById(
+    ResponseEntity<OrderDto> getOrderById(
         @Parameter(description = "Id to search for an order. Cannot be empty.", required = true)
-        @PathVariable("id") Long id
+        @PathVariable("id") Long id,
+        @Parameter(description = "full, or summary for the order without products.")
+        @RequestParam(value = "view", defaultValue = "full") @Pattern(regexp = "full|summary") String view,
+        @Parameter(description = "ETag of the order held by the client.")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     );
 
     @Operation(summary = "Create new order", description = "Returns created order", tags = {"Order"})
     @ApiResponse(content = @Content(schema = @Schema(implementation = OrderDto.class)))
     @ApiResponse(responseCode = "200", description = "Successful operation")
     @ApiResponse(responseCode = "400", description = "Validation errors")
-    @ApiResponse(responseCode = "409", description = "Order already exist")
-    @PostMapping(value = "/orders", consumes = {"application/json"})
+    @ApiResponse(responseCode = "409", description = "Order already exist or the first request with the "
+        + "idempotency key still in progress")
+    @ApiResponse(responseCode = "422", description = "Idempotency key already used for another order or product "
+        + "name differs from the catalog")
+    @PostMapping(value = "/orders", consumes = {"application/json", "application/cbor"})
     OrderDto createOrder(
         @Parameter(description = "Order entity for creating. Cannot be empty.", required = true)
-        @Valid @RequestBody OrderDto order
+        @Validated @RequestBody OrderDto order,
+        @Parameter(description = "Client chosen key, retries of the client with the same key return the first result.")
+        @RequestHeader(value = "Idempotency-Key", required = false) @Size(min = 1, max = 255) String idempotencyKey
+    );
+
+    @Operation(summary = "Create orders in bulk", description = "Accepts a JSON array or NDJSON of orders, writes "
+        + "them in chunks and returns result per order in request order", tags = {"Order"},
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderDto.class)))))
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderBatchResultDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @PostMapping(value = "/orders:batch", consumes = {"application/json", "application/x-ndjson"})
+    OrderBatchResultDto createOrders(@Parameter(hidden = true) InputStream body) throws IOException;
+
+    @Operation(summary = "Replace order", description = "Sets seller, customer and products of the order. Products "
+        + "are matched to the stored ones by id, then by code; only differing rows are written", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Validation errors")
+    @ApiResponse(responseCode = "404", description = "Order not found")
+    @ApiResponse(responseCode = "409", description = "Order already exist with the seller and customer")
+    @ApiResponse(responseCode = "412", description = "Order changed since the version in If-Match")
+    @ApiResponse(responseCode = "422", description = "Product name differs from the catalog")
+    @PutMapping(value = "/orders/{id}", consumes = {"application/json", "application/cbor"})
+    ResponseEntity<OrderDto> updateOrder(
+        @Parameter(description = "Id of the order to be updated. Cannot be empty.", required = true)
+        @PathVariable("id") Long id,
+        @Parameter(description = "Order entity for updating. Cannot be empty.", required = true)
+        @Validated @RequestBody OrderDto order,
+        @Parameter(description = "Strong ETag of the order the update is based on, weak ones never match.")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    );
+
+    @Operation(summary = "Update order", description = "Sets the given fields of the order, products are matched "
+        + "as for replace", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Validation errors")
+    @ApiResponse(responseCode = "404", description = "Order not found")
+    @ApiResponse(responseCode = "409", description = "Order already exist with the seller and customer")
+    @ApiResponse(responseCode = "412", description = "Order changed since the version in If-Match")
+    @ApiResponse(responseCode = "422", description = "Product name differs from the catalog")
+    @PatchMapping(value = "/orders/{id}",
+        consumes = {"application/json", "application/merge-patch+json", "application/cbor"})
+    ResponseEntity<OrderDto> patchOrder(
+        @Parameter(description = "Id of the order to be updated. Cannot be empty.", required = true)
+        @PathVariable("id") Long id,
+        @Parameter(description = "Fields to change, absent ones are kept.", required = true)
+        @Valid @RequestBody OrderPatchDto patch,
+        @Parameter(description = "Strong ETag of the order the update is based on, weak ones never match.")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     );
 
     @Operation(summary = "Delete order by id", description = "Just delete order", tags = {"Order"})
@@ -59,4 +226,15 @@ public interface OrderControllerV1 {
             Long id
     );
 
+    @Operation(summary = "Delete orders in bulk", description = "Deletes orders by id in chunks, ids of missing "
+        + "orders are skipped", tags = {"Order"})
+    @ApiResponse(content = @Content(schema = @Schema(implementation = OrderBatchDeleteResultDto.class)))
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Empty id list")
+    @PostMapping(value = "/orders:batchDelete", consumes = {"application/json", "application/cbor"})
+    OrderBatchDeleteResultDto deleteOrders(
+        @Parameter(description = "Ids of the orders to be deleted.", required = true)
+        @RequestBody @NotEmpty List<@NotNull Long> ids
+    );
+
 }
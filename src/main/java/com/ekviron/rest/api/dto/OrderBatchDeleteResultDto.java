@@ -0,0 +1,22 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "orderBatchDeleteResult")
+public class OrderBatchDeleteResultDto {
+
+    @Schema(description = "Number of distinct requested ids.")
+    private int requested;
+
+    @Schema(description = "Number of deleted orders, ids of missing orders are skipped.")
+    private int deleted;
+
+}
@@ -0,0 +1,35 @@
+package com.ekviron.rest.api.dto;
+
+import com.ekviron.rest.errorhandling.Error;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "orderBatchItem")
+public class OrderBatchItemDto {
+
+    @Schema(description = "Zero based position of the order in the request.")
+    private int index;
+
+    @Schema(description = "Result of the order.")
+    private Result result;
+
+    @Schema(description = "Unique identifier of the created order.")
+    private Long id;
+
+    @Schema(description = "Reason of the rejection.")
+    private Error failure;
+
+    public enum Result {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+}
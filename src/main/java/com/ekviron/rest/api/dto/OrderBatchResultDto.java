@@ -0,0 +1,43 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(name = "orderBatchResult")
+public class OrderBatchResultDto {
+
+    @Schema(description = "Number of created orders.")
+    private int created;
+
+    @Schema(description = "Number of orders with already existing seller and customer.")
+    private int duplicates;
+
+    @Schema(description = "Number of rejected orders.")
+    private int invalid;
+
+    @Schema(description = "Result per order in request order.")
+    private List<OrderBatchItemDto> items;
+
+    public static OrderBatchResultDto of(List<OrderBatchItemDto> items) {
+        OrderBatchResultDto result = new OrderBatchResultDto();
+        for (OrderBatchItemDto item : items) {
+            switch (item.getResult()) {
+                case CREATED:
+                    result.created++;
+                    break;
+                case DUPLICATE:
+                    result.duplicates++;
+                    break;
+                default:
+                    result.invalid++;
+            }
+        }
+        result.items = items;
+        return result;
+    }
+
+}
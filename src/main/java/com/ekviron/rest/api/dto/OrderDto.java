@@ -1,7 +1,11 @@
 package com.ekviron.rest.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
 import java.util.List;
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
@@ -26,7 +30,14 @@ public class OrderDto {
     @Schema(description = "Unique identifier of the Customer.", example = "123456789", required = true)
     private String customer;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Version of the order, changes with every update.", accessMode = AccessMode.READ_ONLY)
+    private Long version;
+
+    @Valid
     @NotEmpty
+    // absent in the summary view
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @Schema(description = "Order products", required = true, minimum = "1")
     private List<ProductDto> products;
 
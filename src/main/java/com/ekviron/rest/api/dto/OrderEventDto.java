@@ -0,0 +1,25 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(name = "orderEvent")
+public class OrderEventDto {
+
+    @Schema(description = "Offset of the event in the feed.")
+    private Long offset;
+
+    @Schema(description = "Change of the order.", allowableValues = {"CREATED", "UPDATED", "DELETED"})
+    private String type;
+
+    @Schema(description = "Unique identifier of the changed order.")
+    private Long orderId;
+
+    @Schema(description = "Time of the change.")
+    private Instant createdAt;
+
+}
@@ -0,0 +1,23 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "orderEventPage")
+public class OrderEventPageDto {
+
+    @Schema(description = "Events in offset order, empty if none came in time.")
+    private List<OrderEventDto> events;
+
+    @Schema(description = "Offset to pass as 'after' for the next events.")
+    private long next;
+
+}
@@ -0,0 +1,23 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "orderPage")
+public class OrderPageDto {
+
+    @Schema(description = "Orders of the page sorted by id.")
+    private List<OrderDto> orders;
+
+    @Schema(description = "Opaque cursor of the next page. Absent on the last page.", example = "aWQ6NDI")
+    private String next;
+
+}
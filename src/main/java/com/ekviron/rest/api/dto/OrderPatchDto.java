@@ -0,0 +1,37 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Partial order, absent fields are left as stored.
+ */
+@Getter
+@Setter
+@Schema(name = "orderPatch")
+public class OrderPatchDto {
+
+    // absent is allowed, blank is not
+    private static final String NOT_BLANK = ".*\\S.*";
+
+    @Pattern(regexp = NOT_BLANK, message = "must not be blank")
+    @Size(min = 9, max = 9)
+    @Schema(description = "Unique identifier of the Seller.", example = "123456789")
+    private String seller;
+
+    @Pattern(regexp = NOT_BLANK, message = "must not be blank")
+    @Size(min = 9, max = 9)
+    @Schema(description = "Unique identifier of the Customer.", example = "123456789")
+    private String customer;
+
+    @Valid
+    @Size(min = 1)
+    @Schema(description = "All products of the order, matched to the stored ones by id, then by code.")
+    private List<ProductDto> products;
+
+}
@@ -0,0 +1,37 @@
+package com.ekviron.rest.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(name = "orderStats")
+public class OrderStatsDto {
+
+    @Schema(description = "Number of orders.")
+    private long orders;
+
+    @Schema(description = "Number of products of all orders.")
+    private long products;
+
+    @Schema(description = "Sellers with the most orders, by number of orders.")
+    private Map<String, Long> topSellers;
+
+    @Schema(description = "Most ordered product codes, by number of products.")
+    private Map<String, Long> topProductCodes;
+
+    @Schema(description = "Number of orders by number of products per order.")
+    private Map<Integer, Long> ordersByProductCount;
+
+    @Schema(description = "Orders created by the answering node since its start.")
+    private long ordersCreated;
+
+    @Schema(description = "Products created by the answering node since its start.")
+    private long productsCreated;
+
+    @Schema(description = "Orders deleted by the answering node since its start.")
+    private long ordersDeleted;
+
+}
@@ -15,7 +15,7 @@ public class ProductDto {
     private Long id;
 
     @NotBlank
-    @Schema(description = "product name", example = "milk")
+    @Schema(description = "product name, the one in the catalog for a known code", example = "milk")
     private String name;
 
     @NotBlank
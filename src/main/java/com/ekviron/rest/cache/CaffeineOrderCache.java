@@ -0,0 +1,51 @@
+package com.ekviron.rest.cache;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process cache bounded by size and time to live.
+ */
+public class CaffeineOrderCache implements OrderCache {
+
+    private final Cache<Long, OrderDto> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    public CaffeineOrderCache(long maxSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public OrderDto get(Long id, Function<Long, OrderDto> loader) {
+        // loads of one id are coalesced, an evict of the id waits for the running load
+        return cache.get(id, loader);
+    }
+
+    @Override
+    public OrderDto getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    @Override
+    public void evict(Long id) {
+        cache.invalidate(id);
+        invalidations.increment();
+    }
+
+    @Override
+    public OrderCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new OrderCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), invalidations.sum());
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.ekviron.rest.cache;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import java.util.function.Function;
+
+/**
+ * Local cache kept in step with the other nodes: ids evicted here are published on the bus, ids published by other
+ * nodes are evicted here.
+ */
+public class InvalidatingOrderCache implements OrderCache {
+
+    private final OrderCache local;
+    private final OrderInvalidationBus bus;
+
+    public InvalidatingOrderCache(OrderCache local, OrderInvalidationBus bus) {
+        this.local = local;
+        this.bus = bus;
+        bus.subscribe(local::evict);
+    }
+
+    @Override
+    public OrderDto get(Long id, Function<Long, OrderDto> loader) {
+        return local.get(id, loader);
+    }
+
+    @Override
+    public OrderDto getIfPresent(Long id) {
+        return local.getIfPresent(id);
+    }
+
+    /**
+     * Evicts here and tells the peers. Called after the commit of the change, before it they could only load the old
+     * order again.
+     */
+    @Override
+    public void evict(Long id) {
+        local.evict(id);
+        bus.publish(id);
+    }
+
+    @Override
+    public boolean keepsLoadedOrders() {
+        return local.keepsLoadedOrders();
+    }
+
+    @Override
+    public OrderCacheStats stats() {
+        return local.stats();
+    }
+
+}
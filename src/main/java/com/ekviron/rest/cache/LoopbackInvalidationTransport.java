@@ -0,0 +1,25 @@
+package com.ekviron.rest.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers batches to the subscribers in the same process, on the sending thread. Nodes sharing one instance behave
+ * like a cluster on one machine; a single node needs nothing more.
+ */
+public class LoopbackInvalidationTransport implements OrderInvalidationTransport {
+
+    private final List<Consumer<OrderInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(OrderInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<OrderInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+}
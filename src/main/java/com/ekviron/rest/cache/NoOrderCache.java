@@ -0,0 +1,40 @@
+package com.ekviron.rest.cache;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caches nothing, every lookup goes to the loader.
+ */
+public class NoOrderCache implements OrderCache {
+
+    private final LongAdder misses = new LongAdder();
+
+    @Override
+    public OrderDto get(Long id, Function<Long, OrderDto> loader) {
+        misses.increment();
+        return loader.apply(id);
+    }
+
+    @Override
+    public OrderDto getIfPresent(Long id) {
+        return null;
+    }
+
+    @Override
+    public void evict(Long id) {
+        // nothing to evict
+    }
+
+    @Override
+    public boolean keepsLoadedOrders() {
+        return false;
+    }
+
+    @Override
+    public OrderCacheStats stats() {
+        return new OrderCacheStats(0, misses.sum(), 0, 0);
+    }
+
+}
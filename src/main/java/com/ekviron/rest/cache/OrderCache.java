@@ -0,0 +1,39 @@
+package com.ekviron.rest.cache;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import java.util.function.Function;
+
+/**
+ * Store of mapped orders by id, sits in front of the order lookup.
+ */
+public interface OrderCache {
+
+    /**
+     * Returns the cached order or loads and caches it. Exceptions of the loader are passed through, nothing is
+     * cached then.
+     */
+    OrderDto get(Long id, Function<Long, OrderDto> loader);
+
+    /**
+     * Returns the cached order or {@code null}, never loads.
+     */
+    OrderDto getIfPresent(Long id);
+
+    /**
+     * Drops the order. Called after the commit of the change, a load in between would cache the old order again.
+     */
+    void evict(Long id);
+
+    /**
+     * Whether loaded orders are kept for later lookups. Loads of a keeping cache are read from the primary.
+     */
+    default boolean keepsLoadedOrders() {
+        return true;
+    }
+
+    /**
+     * Counters since start.
+     */
+    OrderCacheStats stats();
+
+}
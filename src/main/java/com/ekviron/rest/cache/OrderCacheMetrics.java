@@ -0,0 +1,36 @@
+package com.ekviron.rest.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes {@link OrderCacheStats} of whatever cache is configured.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCacheMetrics implements MeterBinder {
+
+    private final OrderCache cache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ekviron.orders.cache.gets", cache, c -> c.stats().getHits())
+            .tag("result", "hit")
+            .description("Order lookups served from the cache")
+            .register(registry);
+        FunctionCounter.builder("ekviron.orders.cache.gets", cache, c -> c.stats().getMisses())
+            .tag("result", "miss")
+            .description("Order lookups passed to the database")
+            .register(registry);
+        FunctionCounter.builder("ekviron.orders.cache.evictions", cache, c -> c.stats().getEvictions())
+            .description("Orders dropped due to size or ttl bounds")
+            .register(registry);
+        FunctionCounter.builder("ekviron.orders.cache.invalidations", cache, c -> c.stats().getInvalidations())
+            .description("Orders dropped on create and delete")
+            .register(registry);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.ekviron.rest.cache;
+
+import lombok.Value;
+
+@Value
+public class OrderCacheStats {
+
+    long hits;
+    long misses;
+    /**
+     * Entries dropped due to size or ttl bounds.
+     */
+    long evictions;
+    /**
+     * Entries dropped by {@link OrderCache#evict(Long)}.
+     */
+    long invalidations;
+
+}
@@ -0,0 +1,18 @@
+package com.ekviron.rest.cache;
+
+import lombok.Value;
+
+/**
+ * Batch of order ids changed on one node, sent to the other nodes.
+ */
+@Value
+public class OrderInvalidation {
+
+    /**
+     * Node that sent the batch, it has evicted the ids already.
+     */
+    String origin;
+
+    long[] ids;
+
+}
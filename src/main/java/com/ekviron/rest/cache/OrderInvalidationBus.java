@@ -0,0 +1,104 @@
+package com.ekviron.rest.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes ids of orders changed on this node to the other nodes and passes theirs to a listener. Ids are collected
+ * and sent in batches, a batch goes out when full or at the latest {@code maxLag} after its first id.
+ */
+@Slf4j
+public class OrderInvalidationBus implements AutoCloseable {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final OrderInvalidationTransport transport;
+    private final int batchSize;
+    private final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder sentBatches = new LongAdder();
+    private final LongAdder receivedIds = new LongAdder();
+
+    public OrderInvalidationBus(OrderInvalidationTransport transport, int batchSize, Duration maxLag) {
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long lag = maxLag.toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, lag, lag, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Passes ids changed on other nodes to the listener, on the transport's thread.
+     */
+    public void subscribe(LongConsumer listener) {
+        transport.subscribe(invalidation -> {
+            if (nodeId.equals(invalidation.getOrigin())) {
+                return;
+            }
+            for (long id : invalidation.getIds()) {
+                listener.accept(id);
+            }
+            receivedIds.add(invalidation.getIds().length);
+        });
+    }
+
+    public void publish(Long id) {
+        pending.add(id);
+        if (pendingCount.incrementAndGet() == batchSize) {
+            // a full batch doesn't wait for the schedule
+            flusher.execute(this::flush);
+        }
+    }
+
+    public long getSentBatches() {
+        return sentBatches.sum();
+    }
+
+    public long getReceivedIds() {
+        return receivedIds.sum();
+    }
+
+    /**
+     * Sends everything pending. Runs on the flusher thread only.
+     */
+    private void flush() {
+        try {
+            while (!pending.isEmpty()) {
+                Set<Long> batch = new LinkedHashSet<>();
+                Long id;
+                while (batch.size() < batchSize && (id = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    batch.add(id);
+                }
+                transport.send(new OrderInvalidation(nodeId, batch.stream().mapToLong(Long::longValue).toArray()));
+                sentBatches.increment();
+            }
+        } catch (RuntimeException e) {
+            // the ids of the batch are lost, the cache ttl still bounds how long they are served
+            log.warn("Sending order invalidations failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // queued before the shutdown, so it still runs
+        flusher.execute(this::flush);
+        flusher.shutdown();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.ekviron.rest.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between nodes, e.g. over a message broker's topic. Every node gets every batch, its own
+ * included. Delivery is best effort: a lost batch leaves orders cached until their ttl runs out.
+ */
+public interface OrderInvalidationTransport {
+
+    void send(OrderInvalidation invalidation);
+
+    void subscribe(Consumer<OrderInvalidation> listener);
+
+}
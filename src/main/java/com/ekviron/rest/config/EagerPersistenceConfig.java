@@ -0,0 +1,26 @@
+package com.ekviron.rest.config;
+
+import javax.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * With lazy initialization on, keeps migrations and the entity manager factory eager: a schema that doesn't match
+ * the entities stops the boot instead of failing the first request, and the first request doesn't pay for them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class EagerPersistenceConfig {
+
+    @Bean
+    @Lazy(false)
+    public SmartInitializingSingleton eagerEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            // depending on the factory is enough, flyway runs before it
+        };
+    }
+
+}
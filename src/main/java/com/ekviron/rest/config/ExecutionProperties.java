@@ -0,0 +1,55 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.execution")
+public class ExecutionProperties {
+
+    /**
+     * Where order API handlers run.
+     */
+    @NotNull
+    private Mode mode = Mode.BLOCKING;
+
+    /**
+     * Threads running offloaded handlers. There is no gain in more threads than database connections.
+     */
+    @Min(1)
+    private int poolSize = 10;
+
+    /**
+     * Offloaded handlers waiting for a thread. Requests beyond it are rejected with 503. At least one, the queue tells
+     * whether all threads are busy.
+     */
+    @Min(1)
+    private int queueCapacity = 2_000;
+
+    /**
+     * Max time of an offloaded handler including the wait in the queue.
+     */
+    @NotNull
+    private Duration timeout = Duration.ofSeconds(30);
+
+    public enum Mode {
+        /**
+         * Handlers run on the servlet container thread of the request.
+         */
+        BLOCKING,
+        /**
+         * Handlers run on a bounded pool sized to the database, container threads are released while they wait.
+         */
+        OFFLOAD
+    }
+
+}
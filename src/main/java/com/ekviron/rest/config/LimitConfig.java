@@ -0,0 +1,28 @@
+package com.ekviron.rest.config;
+
+import com.ekviron.rest.limit.RequestLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "ekviron.limits", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestLimitFilter> requestLimitFilter(
+        LimitProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        FilterRegistrationBean<RequestLimitFilter> registration =
+            new FilterRegistrationBean<>(new RequestLimitFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        // after the http.server.requests metrics filter, so rejections are timed as well
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+}
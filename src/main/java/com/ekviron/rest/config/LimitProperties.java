@@ -0,0 +1,115 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.limits")
+public class LimitProperties {
+
+    /**
+     * Whether order API requests are rate and concurrency limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header naming the calling client, set by a trusted proxy that authenticated it. Other requests are limited by
+     * remote address, a header any caller can set would give it as many limits as names it makes up.
+     */
+    @NotNull
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Remote addresses whose client header is taken, none by default.
+     */
+    @NotNull
+    private Set<String> trustedProxies = new HashSet<>();
+
+    /**
+     * Max clients with own rate limits kept per node, the least recently seen are dropped.
+     */
+    @Min(1)
+    private long maxClients = 100_000;
+
+    /**
+     * Rate per client, exceeding it is answered with 429.
+     */
+    @Valid
+    @NotNull
+    private Rate client = new Rate(100, 200);
+
+    /**
+     * Rate of the node over all clients, exceeding it is answered with 429.
+     */
+    @Valid
+    @NotNull
+    private Rate global = new Rate(5_000, 10_000);
+
+    /**
+     * Requests in progress, exceeding the limit is answered with 503.
+     */
+    @Valid
+    @NotNull
+    private Concurrency concurrency = new Concurrency();
+
+    @Getter
+    @Setter
+    public static class Rate {
+
+        /**
+         * Sustained requests per second.
+         */
+        @Min(1)
+        private double permitsPerSecond;
+
+        /**
+         * Requests allowed at once after a quiet period.
+         */
+        @Min(1)
+        private int burst;
+
+        public Rate() {
+        }
+
+        Rate(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+
+        /**
+         * Limit at start, it then adapts between {@code min-limit} and {@code max-limit}.
+         */
+        @Min(1)
+        private int initialLimit = 50;
+
+        @Min(1)
+        private int minLimit = 10;
+
+        @Min(1)
+        private int maxLimit = 500;
+
+        /**
+         * Responses slower than that, or failing with 5xx, shrink the limit. Faster ones grow it.
+         */
+        @NotNull
+        private Duration latencyThreshold = Duration.ofMillis(500);
+    }
+
+}
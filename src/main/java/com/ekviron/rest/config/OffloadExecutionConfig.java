@@ -0,0 +1,26 @@
+package com.ekviron.rest.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Switches order API handlers to the offload mode, see {@link ExecutionProperties.Mode#OFFLOAD}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ekviron.execution", name = "mode", havingValue = "offload")
+public class OffloadExecutionConfig {
+
+    @Bean
+    public WebMvcRegistrations offloadingWebMvcRegistrations(ExecutionProperties properties) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new OffloadingHandlerAdapter(properties);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.ekviron.rest.config;
+
+import com.ekviron.rest.api.OrderControllerV1;
+import com.ekviron.rest.exception.ServiceOverloadedException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Runs order API handlers on a bounded pool instead of the servlet container thread. Arguments are still resolved on
+ * the container thread, only the handler call is offloaded, so validation and error handling stay as they are.
+ * Handlers that are asynchronous by themselves are left alone. A request finding every thread busy and the queue full
+ * is rejected with 503.
+ */
+class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMillis;
+
+    OffloadingHandlerAdapter(ExecutionProperties properties) {
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("order-handler-");
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.initialize();
+        this.timeoutMillis = properties.getTimeout().toMillis();
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        return isOffloaded(handlerMethod)
+            ? new OffloadedHandlerMethod(handlerMethod)
+            : super.createInvocableHandlerMethod(handlerMethod);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static boolean isOffloaded(HandlerMethod handlerMethod) {
+        return OrderControllerV1.class.isAssignableFrom(handlerMethod.getBeanType())
+            && !isAsync(handlerMethod.getReturnType());
+    }
+
+    private static boolean isAsync(MethodParameter returnType) {
+        Class<?> type = returnType.getParameterType();
+        if (HttpEntity.class.isAssignableFrom(type)) {
+            Class<?> body = ResolvableType.forMethodParameter(returnType).getGeneric().resolve();
+            type = body != null ? body : Object.class;
+        }
+        return StreamingResponseBody.class.isAssignableFrom(type)
+            || ResponseBodyEmitter.class.isAssignableFrom(type)
+            || Callable.class.isAssignableFrom(type)
+            || WebAsyncTask.class.isAssignableFrom(type)
+            || DeferredResult.class.isAssignableFrom(type)
+            || CompletionStage.class.isAssignableFrom(type);
+    }
+
+    private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) {
+            // reject while still on the container thread, before the request goes async. The queue only fills once
+            // every thread is busy, the executor rejects the few requests racing for its last slot after this check
+            if (executor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+                throw new ServiceOverloadedException();
+            }
+            // the request stays visible to the handler, e.g. for routing reads of a client that just wrote
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            return new WebAsyncTask<>(timeoutMillis, executor, () -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return super.doInvoke(args);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.ekviron.rest.config;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.orders.batch")
+public class OrderBatchProperties {
+
+    /**
+     * Orders written per transaction by the bulk endpoint.
+     */
+    @Min(1)
+    @Max(10_000)
+    private int chunkSize = 500;
+
+}
@@ -0,0 +1,60 @@
+package com.ekviron.rest.config;
+
+import com.ekviron.rest.cache.CaffeineOrderCache;
+import com.ekviron.rest.cache.InvalidatingOrderCache;
+import com.ekviron.rest.cache.LoopbackInvalidationTransport;
+import com.ekviron.rest.cache.NoOrderCache;
+import com.ekviron.rest.cache.OrderCache;
+import com.ekviron.rest.cache.OrderInvalidationBus;
+import com.ekviron.rest.cache.OrderInvalidationTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OrderCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ekviron.orders.cache", name = "type", havingValue = "caffeine",
+        matchIfMissing = true)
+    public OrderCache caffeineOrderCache(
+        OrderCacheProperties properties,
+        ObjectProvider<OrderInvalidationBus> invalidationBus
+    ) {
+        OrderCache cache = new CaffeineOrderCache(properties.getMaxSize(), properties.getTtl());
+        OrderInvalidationBus bus = invalidationBus.getIfAvailable();
+        return bus != null ? new InvalidatingOrderCache(cache, bus) : cache;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ekviron.orders.cache.invalidation", name = "enabled", havingValue = "true")
+    public OrderInvalidationBus orderInvalidationBus(
+        OrderCacheProperties properties,
+        ObjectProvider<OrderInvalidationTransport> transport,
+        MeterRegistry meterRegistry
+    ) {
+        OrderCacheProperties.Invalidation invalidation = properties.getInvalidation();
+        OrderInvalidationBus bus = new OrderInvalidationBus(
+            transport.getIfAvailable(LoopbackInvalidationTransport::new),
+            invalidation.getBatchSize(),
+            invalidation.getMaxLag()
+        );
+        FunctionCounter.builder("ekviron.orders.cache.invalidation.batches", bus, OrderInvalidationBus::getSentBatches)
+            .description("Batches of changed order ids sent to the other nodes")
+            .register(meterRegistry);
+        FunctionCounter.builder("ekviron.orders.cache.invalidation.received", bus, OrderInvalidationBus::getReceivedIds)
+            .description("Order ids changed on other nodes")
+            .register(meterRegistry);
+        return bus;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ekviron.orders.cache", name = "type", havingValue = "none")
+    public OrderCache noOrderCache() {
+        return new NoOrderCache();
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.orders.cache")
+public class OrderCacheProperties {
+
+    /**
+     * Cache implementation.
+     */
+    @NotNull
+    private Type type = Type.CAFFEINE;
+
+    /**
+     * Max cached orders per node.
+     */
+    @Min(1)
+    private long maxSize = 10_000;
+
+    /**
+     * Time to live of a cached order.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Eviction of orders changed on other nodes, applies to the caffeine cache.
+     */
+    @Valid
+    @NotNull
+    private Invalidation invalidation = new Invalidation();
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /**
+         * Whether changed order ids are exchanged with the other nodes. The transport is an OrderInvalidationTransport
+         * bean provided by the deployment, without one the nodes of this process are reached only.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max ids sent at once.
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        /**
+         * Max time an id waits for its batch to be sent.
+         */
+        @NotNull
+        private Duration maxLag = Duration.ofMillis(100);
+    }
+
+    public enum Type {
+        /**
+         * In-process cache bounded by {@code max-size} and {@code ttl}.
+         */
+        CAFFEINE,
+        /**
+         * Cache shared between nodes, the OrderCache bean is provided by the deployment.
+         */
+        SHARED,
+        /**
+         * No caching.
+         */
+        NONE
+    }
+
+}
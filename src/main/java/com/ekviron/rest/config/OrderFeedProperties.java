@@ -0,0 +1,37 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.orders.feed")
+public class OrderFeedProperties {
+
+    /**
+     * How often committed events get their feed offsets and waiting feed requests check for new events, with one
+     * query for all of them.
+     */
+    @NotNull
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Max wait of a feed request without new events.
+     */
+    @NotNull
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Age after which events are purged.
+     */
+    @NotNull
+    private Duration retention = Duration.ofDays(7);
+
+}
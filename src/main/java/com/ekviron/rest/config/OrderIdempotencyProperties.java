@@ -0,0 +1,37 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.orders.idempotency")
+public class OrderIdempotencyProperties {
+
+    /**
+     * Max remembered idempotency keys per node.
+     */
+    @Min(1)
+    private long maxSize = 100_000;
+
+    /**
+     * How long a key is remembered, retries after that create the order again.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Max wait of a request for the first one with the same key, it gets 409 when that is still running.
+     */
+    @NotNull
+    private Duration wait = Duration.ofSeconds(10);
+
+}
@@ -0,0 +1,25 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.orders.stats")
+public class OrderStatsProperties {
+
+    /**
+     * How long computed statistics are served while this node has no writes. Writes of other nodes show up after
+     * that at the latest.
+     */
+    @NotNull
+    private Duration maxAge = Duration.ofSeconds(30);
+
+}
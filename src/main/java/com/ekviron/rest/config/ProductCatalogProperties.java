@@ -0,0 +1,24 @@
+package com.ekviron.rest.config;
+
+import javax.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.catalog")
+public class ProductCatalogProperties {
+
+    /**
+     * Max product codes kept in memory per node with their catalog entries. Entries never change, so they are only
+     * evicted by size.
+     */
+    @Min(1)
+    private long cacheSize = 100_000;
+
+}
@@ -0,0 +1,62 @@
+package com.ekviron.rest.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Component
+@ConfigurationProperties(prefix = "ekviron.replicas")
+public class ReplicaProperties {
+
+    /**
+     * Whether read-only transactions go to the replicas. {@code spring.datasource} stays the primary.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Replicas of the primary, read-only transactions are spread over them round-robin.
+     */
+    @Valid
+    @NotNull
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Lag tolerated of a replica. A client's reads go to the primary for that long after its last write, and replicas
+     * found further behind by {@code lag-query} get no reads.
+     */
+    @NotNull
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    /**
+     * Query returning the lag of a replica in seconds, run on every replica each {@code lag-check-interval}. Without
+     * it replicas are taken as within {@code max-lag}.
+     */
+    private String lagQuery;
+
+    @NotNull
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    @Getter
+    @Setter
+    public static class Node {
+
+        @NotBlank
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.ekviron.rest.config;
+
+import com.ekviron.rest.routing.ReadYourWrites;
+import com.ekviron.rest.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single datasource by the primary and its replicas when {@code ekviron.replicas.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ekviron.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * The primary as spring boot would have built it.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+        HikariDataSource primaryDataSource,
+        ReplicaProperties properties,
+        LimitProperties limitProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties.getMaxLag(), limitProperties);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            replicas.add(replica(primaryDataSource, properties.getNodes().get(i), i));
+        }
+        ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites, properties);
+        Gauge.builder("ekviron.replicas.in_sync", routing, ReplicaRoutingDataSource::getReplicasInSync)
+            .description("Replicas within the lag tolerance")
+            .register(meterRegistry);
+        return routing;
+    }
+
+    /**
+     * The datasource everything uses. The connection is taken at the first statement, when the transaction and its
+     * read-only flag are known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * A pool like the primary's, pointed at the replica.
+     */
+    private static HikariDataSource replica(HikariDataSource primary, ReplicaProperties.Node node, int index) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setJdbcUrl(node.getUrl());
+        config.setUsername(node.getUsername());
+        config.setPassword(node.getPassword());
+        config.setPoolName("replica-" + index);
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.config.LimitProperties;
+import com.ekviron.rest.config.OrderIdempotencyProperties;
+import com.ekviron.rest.exception.IdempotencyKeyInProgressException;
+import com.ekviron.rest.exception.IdempotencyKeyReusedException;
+import com.ekviron.rest.limit.ClientKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Results of order creations by client and idempotency key. The first request with a key runs the creation, requests
+ * of the same client with the same key wait for it or get its result afterwards; a failed creation is forgotten so
+ * the client can retry. Reusing a key for a different order is rejected. Keys in progress weigh nothing, so the size
+ * limit never drops one and lets a duplicate run.
+ */
+@Component
+class IdempotencyKeyStore {
+
+    private final ConcurrentMap<String, Entry> entries;
+    private final ObjectMapper objectMapper;
+    private final LimitProperties limitProperties;
+    private final long waitNanos;
+
+    IdempotencyKeyStore(
+        OrderIdempotencyProperties properties,
+        ObjectMapper objectMapper,
+        LimitProperties limitProperties
+    ) {
+        this.entries = Caffeine.newBuilder()
+            .maximumWeight(properties.getMaxSize())
+            .<String, Entry>weigher((key, entry) -> entry.result.isDone() ? 1 : 0)
+            .expireAfterWrite(properties.getTtl().toNanos(), TimeUnit.NANOSECONDS)
+            .build()
+            .asMap();
+        this.objectMapper = objectMapper;
+        this.limitProperties = limitProperties;
+        this.waitNanos = properties.getWait().toNanos();
+    }
+
+    OrderDto create(String key, OrderDto order, Supplier<OrderDto> creation) {
+        String scopedKey = currentClient() + '\n' + key;
+        byte[] fingerprint = fingerprint(order);
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return existing.await(key, waitNanos);
+        }
+        try {
+            OrderDto created = creation.get();
+            entry.result.complete(created);
+            // weighed again, from now on it counts against the size
+            entries.replace(scopedKey, entry, entry);
+            return created;
+        } catch (RuntimeException e) {
+            entries.remove(scopedKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Client of the current request as for the rate limits, empty outside of requests.
+     */
+    private String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "";
+        }
+        return ClientKey.of(((ServletRequestAttributes) attributes).getRequest(), limitProperties);
+    }
+
+    private byte[] fingerprint(OrderDto order) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(order));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Can't fingerprint order", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] fingerprint;
+        private final CompletableFuture<OrderDto> result = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private OrderDto await(String key, long waitNanos) {
+            try {
+                return result.get(waitNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // the exception of the first request, e.g. a conflict, answered the same way
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new IdempotencyKeyInProgressException(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.api.dto.OrderBatchItemDto.Result.CREATED;
+import static com.ekviron.rest.api.dto.OrderBatchItemDto.Result.DUPLICATE;
+import static com.ekviron.rest.api.dto.OrderBatchItemDto.Result.INVALID;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+import com.ekviron.rest.api.dto.OrderBatchItemDto;
+import com.ekviron.rest.api.dto.OrderBatchResultDto;
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.config.OrderBatchProperties;
+import com.ekviron.rest.errorhandling.Error;
+import com.ekviron.rest.exception.EntityAlreadyExistException;
+import com.ekviron.rest.exception.ProductNameMismatchException;
+import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.Product;
+import com.ekviron.rest.service.OrderBatchService;
+import com.ekviron.rest.service.ProductCatalogService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+/**
+ * Reads orders of the bulk endpoint one by one and writes them in chunks. Accepts a JSON array as well as
+ * whitespace separated orders (NDJSON).
+ */
+@Component
+class OrderBatchReader {
+
+    private static final String DUPLICATE_MESSAGE = new EntityAlreadyExistException(Order.class).getMessage();
+
+    private final ObjectReader orderReader;
+    private final OrderDtoValidator validator;
+    private final OrderMapper mapper;
+    private final OrderBatchService batchService;
+    private final ProductCatalogService catalog;
+    private final OrderBatchProperties properties;
+
+    OrderBatchReader(
+        ObjectMapper objectMapper,
+        OrderDtoValidator validator,
+        OrderMapper mapper,
+        OrderBatchService batchService,
+        ProductCatalogService catalog,
+        OrderBatchProperties properties
+    ) {
+        this.orderReader = objectMapper.readerFor(OrderDto.class);
+        this.validator = validator;
+        this.mapper = mapper;
+        this.batchService = batchService;
+        this.catalog = catalog;
+        this.properties = properties;
+    }
+
+    /**
+     * Reading stops at the first malformed order, orders before it are written anyway.
+     */
+    OrderBatchResultDto createAll(InputStream body) throws IOException {
+        List<OrderBatchItemDto> items = new ArrayList<>();
+        List<OrderBatchItemDto> pending = new ArrayList<>(properties.getChunkSize());
+        List<Order> chunk = new ArrayList<>(properties.getChunkSize());
+        try (MappingIterator<OrderDto> orders = orderReader.readValues(body)) {
+            for (int index = 0; ; index++) {
+                OrderDto orderDto;
+                try {
+                    if (!orders.hasNextValue()) {
+                        break;
+                    }
+                    orderDto = orders.nextValue();
+                } catch (JsonProcessingException e) {
+                    items.add(new OrderBatchItemDto(
+                        index, INVALID, null, new Error(BAD_REQUEST, "Malformed JSON request", e)));
+                    break;
+                }
+
+                OrderBatchItemDto item = validate(index, orderDto);
+                items.add(item);
+                if (item.getResult() == null) {
+                    pending.add(item);
+                    chunk.add(mapper.orderDtoToOrder(orderDto));
+                    if (chunk.size() == properties.getChunkSize()) {
+                        write(chunk, pending);
+                    }
+                }
+            }
+        }
+        write(chunk, pending);
+        return OrderBatchResultDto.of(items);
+    }
+
+    /**
+     * @return item without result for a valid order, invalid item otherwise
+     */
+    private OrderBatchItemDto validate(int index, OrderDto orderDto) {
+        OrderBatchItemDto item = new OrderBatchItemDto();
+        item.setIndex(index);
+        BindingResult result = new BeanPropertyBindingResult(orderDto, "orderDto");
+        validator.validate(orderDto, result);
+        if (result.hasErrors()) {
+            Error error = new Error(BAD_REQUEST);
+            error.setMessage("Validation error");
+            error.addValidationErrors(result.getFieldErrors());
+            item.setResult(INVALID);
+            item.setFailure(error);
+        }
+        return item;
+    }
+
+    private void write(List<Order> chunk, List<OrderBatchItemDto> pending) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        rejectRenamedProducts(chunk, pending);
+        List<Order> saved = chunk.isEmpty() ? Collections.emptyList() : batchService.createAll(chunk);
+        for (int i = 0; i < saved.size(); i++) {
+            OrderBatchItemDto item = pending.get(i);
+            Order order = saved.get(i);
+            if (order != null) {
+                item.setResult(CREATED);
+                item.setId(order.getId());
+            } else {
+                Error error = new Error(CONFLICT);
+                error.setMessage(DUPLICATE_MESSAGE);
+                item.setResult(DUPLICATE);
+                item.setFailure(error);
+            }
+        }
+        chunk.clear();
+        pending.clear();
+    }
+
+    /**
+     * Resolves the codes of the chunk at once and takes the orders with a name other than the catalog's out of it, so
+     * they fail on their own and not the chunk.
+     */
+    private void rejectRenamedProducts(List<Order> chunk, List<OrderBatchItemDto> pending) {
+        Map<Product, String> renamed = catalog.resolveAll(chunk.stream()
+            .filter(order -> order.getProducts() != null)
+            .flatMap(order -> order.getProducts().stream())
+            .collect(toList()));
+        if (renamed.isEmpty()) {
+            return;
+        }
+        for (int i = chunk.size() - 1; i >= 0; i--) {
+            if (chunk.get(i).getProducts() == null) {
+                continue;
+            }
+            for (Product product : chunk.get(i).getProducts()) {
+                String name = renamed.get(product);
+                if (name != null) {
+                    Error error = new Error(UNPROCESSABLE_ENTITY);
+                    error.setMessage(
+                        new ProductNameMismatchException(product.getCode(), name, product.getName()).getMessage());
+                    pending.get(i).setResult(INVALID);
+                    pending.get(i).setFailure(error);
+                    chunk.remove(i);
+                    pending.remove(i);
+                    break;
+                }
+            }
+        }
+    }
+
+}
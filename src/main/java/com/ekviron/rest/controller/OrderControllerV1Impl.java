@@ -1,38 +1,270 @@
 package com.ekviron.rest.controller;
 
 import com.ekviron.rest.api.OrderControllerV1;
+import com.ekviron.rest.api.dto.OrderBatchDeleteResultDto;
+import com.ekviron.rest.api.dto.OrderBatchResultDto;
 import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.OrderEventPageDto;
+import com.ekviron.rest.api.dto.OrderPageDto;
+import com.ekviron.rest.api.dto.OrderPatchDto;
+import com.ekviron.rest.api.dto.OrderStatsDto;
+import com.ekviron.rest.cache.OrderCache;
+import com.ekviron.rest.mapper.OrderEventMapper;
 import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.mapper.OrderStatisticsMapper;
 import com.ekviron.rest.model.Order;
+import com.ekviron.rest.repository.OrderSummary;
+import com.ekviron.rest.repository.OrderVersion;
+import com.ekviron.rest.routing.ReadRouting;
+import com.ekviron.rest.service.OrderBatchService;
+import com.ekviron.rest.service.OrderEventService;
 import com.ekviron.rest.service.OrderService;
+import com.ekviron.rest.service.OrderStatisticsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+@Validated
 @RestController
-@RequiredArgsConstructor
 public class OrderControllerV1Impl implements OrderControllerV1 {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    private static final String SUMMARY = "summary";
+
     private final OrderService service;
     private final OrderMapper mapper;
+    private final OrderBatchReader batchReader;
+    private final OrderDtoValidator orderDtoValidator;
+    private final OrderExporter exporter;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final OrderBatchService batchService;
+    private final OrderStatisticsService statisticsService;
+    private final OrderStatisticsMapper statisticsMapper;
+    private final OrderEventService eventService;
+    private final OrderEventMapper eventMapper;
+    private final OrderCache orderCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter orderWriter;
+
+    public OrderControllerV1Impl(
+        OrderService service,
+        OrderMapper mapper,
+        OrderBatchReader batchReader,
+        OrderDtoValidator orderDtoValidator,
+        OrderExporter exporter,
+        IdempotencyKeyStore idempotencyKeys,
+        OrderBatchService batchService,
+        OrderStatisticsService statisticsService,
+        OrderStatisticsMapper statisticsMapper,
+        OrderEventService eventService,
+        OrderEventMapper eventMapper,
+        OrderCache orderCache,
+        ObjectMapper objectMapper
+    ) {
+        this.service = service;
+        this.mapper = mapper;
+        this.batchReader = batchReader;
+        this.orderDtoValidator = orderDtoValidator;
+        this.exporter = exporter;
+        this.idempotencyKeys = idempotencyKeys;
+        this.batchService = batchService;
+        this.statisticsService = statisticsService;
+        this.statisticsMapper = statisticsMapper;
+        this.eventService = eventService;
+        this.eventMapper = eventMapper;
+        this.orderCache = orderCache;
+        this.objectMapper = objectMapper;
+        // one flush per stream instead of one per order
+        this.orderWriter = objectMapper.writerFor(OrderDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Order bodies are checked by {@link OrderDtoValidator} instead of bean validation. They are taken as
+     * {@code @Validated}, not {@code @Valid}, so method validation doesn't walk them again.
+     */
+    @InitBinder("orderDto")
+    void initOrderDtoBinder(WebDataBinder binder) {
+        binder.setValidator(orderDtoValidator);
+    }
 
     @Override
-    public List<OrderDto> getOrders() {
-        List<Order> orders = service.getOrders();
-        return mapper.ordersToOrderDtos(orders);
+    public ResponseEntity<OrderPageDto> getOrders(int limit, String after, String view, String ifNoneMatch) {
+        if (SUMMARY.equals(view)) {
+            return getOrderSummaries(limit, after, ifNoneMatch);
+        }
+        // the etag and the body are read in two transactions, both from the same source
+        return ReadRouting.onOneSource(() -> {
+            Slice<OrderVersion> versions = service.getOrderVersions(OrderCursor.decode(after), limit);
+            String etag = OrderETags.ofPage(versions);
+            if (OrderETags.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(toPage(service.getOrders(versions)));
+        });
+    }
+
+    /**
+     * Summaries come with their versions, the page is one select whether modified or not.
+     */
+    private ResponseEntity<OrderPageDto> getOrderSummaries(int limit, String after, String ifNoneMatch) {
+        Slice<OrderSummary> summaries = service.getOrderSummaries(OrderCursor.decode(after), limit);
+        String etag = OrderETags.ofSummaryPage(summaries);
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        List<OrderDto> orders = mapper.orderSummariesToOrderDtos(summaries.getContent());
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(toPage(orders, summaries.hasNext()));
     }
 
     @Override
-    public OrderDto getOrderById(Long id) {
-        Order order = service.findById(id);
-        return mapper.orderToOrderDto(order);
+    public OrderPageDto getOrdersBySeller(String seller, int limit, String after) {
+        return toPage(service.getOrdersBySeller(seller, OrderCursor.decode(after), limit));
     }
 
     @Override
-    public OrderDto createOrder(OrderDto orderDto) {
-        Order order = mapper.orderDtoToOrder(orderDto);
-        Order savedOrder = service.create(order);
-        return mapper.orderToOrderDto(savedOrder);
+    public OrderPageDto getOrdersByCustomer(String customer, int limit, String after) {
+        return toPage(service.getOrdersByCustomer(customer, OrderCursor.decode(after), limit));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                service.streamOrders(order -> writeOrder(generator, order));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Override
+    public CompletableFuture<OrderEventPageDto> getOrderEvents(long after, int limit, int wait) {
+        return eventService.awaitEvents(after, limit, Duration.ofSeconds(wait)).thenApply(events -> {
+            long next = events.isEmpty() ? after : events.get(events.size() - 1).getFeedOffset();
+            return new OrderEventPageDto(eventMapper.orderEventsToOrderEventDtos(events), next);
+        });
+    }
+
+    @Override
+    public OrderStatsDto getOrderStats(int top) {
+        return statisticsMapper.orderStatisticsToOrderStatsDto(statisticsService.getStatistics(top));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportOrders(String format, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                ExportGzipStream compressed = new ExportGzipStream(out);
+                try {
+                    exporter.export(format, compressed);
+                    compressed.finish();
+                } finally {
+                    compressed.release();
+                }
+            } else {
+                exporter.export(format, out);
+            }
+            out.flush();
+        };
+        boolean csv = OrderExporter.CSV.equals(format);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(csv ? TEXT_CSV : APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Override
+    public ResponseEntity<OrderDto> getOrderById(Long id, String view, String ifNoneMatch) {
+        if (SUMMARY.equals(view)) {
+            return getOrderSummary(id, ifNoneMatch);
+        }
+        if (ifNoneMatch != null) {
+            // answer from the cache or the version column, the order itself is not loaded
+            OrderDto cached = orderCache.getIfPresent(id);
+            String etag = OrderETags.of(id, cached != null ? cached.getVersion() : service.findVersion(id));
+            if (OrderETags.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
+        OrderDto order = orderCache.get(id, this::loadOrder);
+        return ResponseEntity.ok().eTag(OrderETags.of(order.getId(), order.getVersion())).varyBy(HttpHeaders.ACCEPT)
+            .body(order);
+    }
+
+    /**
+     * A kept order is read from the primary. Read from a replica still behind, it would be kept after the eviction of
+     * the change it misses.
+     */
+    private OrderDto loadOrder(Long id) {
+        return orderCache.keepsLoadedOrders()
+            ? ReadRouting.onPrimary(() -> mapper.orderToOrderDto(service.findById(id)))
+            : mapper.orderToOrderDto(service.findById(id));
+    }
+
+    private ResponseEntity<OrderDto> getOrderSummary(Long id, String ifNoneMatch) {
+        OrderDto cached = orderCache.getIfPresent(id);
+        OrderDto summary = cached != null
+            ? mapper.orderDtoToSummary(cached)
+            : mapper.orderSummaryToOrderDto(service.findSummaryById(id));
+        String etag = OrderETags.ofSummary(summary.getId(), summary.getVersion());
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(summary);
+    }
+
+    @Override
+    public OrderDto createOrder(OrderDto orderDto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return create(orderDto);
+        }
+        return idempotencyKeys.create(idempotencyKey, orderDto, () -> create(orderDto));
+    }
+
+    @Override
+    public OrderBatchResultDto createOrders(InputStream body) throws IOException {
+        return batchReader.createAll(body);
+    }
+
+    @Override
+    public ResponseEntity<OrderDto> updateOrder(Long id, OrderDto orderDto, String ifMatch) {
+        return update(id, ifMatch, mapper.orderDtoToOrder(orderDto));
+    }
+
+    @Override
+    public ResponseEntity<OrderDto> patchOrder(Long id, OrderPatchDto patch, String ifMatch) {
+        return update(id, ifMatch, mapper.orderPatchDtoToOrder(patch));
     }
 
     @Override
@@ -40,4 +272,92 @@ public class OrderControllerV1Impl implements OrderControllerV1 {
         service.delete(id);
     }
 
+    @Override
+    public OrderBatchDeleteResultDto deleteOrders(List<Long> ids) {
+        int requested = (int) ids.stream().distinct().count();
+        return new OrderBatchDeleteResultDto(requested, batchService.deleteAll(ids));
+    }
+
+    private OrderDto create(OrderDto orderDto) {
+        Order order = mapper.orderDtoToOrder(orderDto);
+        Order savedOrder = service.create(order);
+        return mapper.orderToOrderDto(savedOrder);
+    }
+
+    private ResponseEntity<OrderDto> update(Long id, String ifMatch, Order changes) {
+        Order order = service.update(id, OrderETags.expectedVersion(id, ifMatch), changes);
+        return ResponseEntity.ok().eTag(OrderETags.of(order.getId(), order.getVersion())).varyBy(HttpHeaders.ACCEPT)
+            .body(mapper.orderToOrderDto(order));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    private OrderPageDto toPage(Slice<Order> page) {
+        return toPage(mapper.ordersToOrderDtos(page.getContent()), page.hasNext());
+    }
+
+    private static OrderPageDto toPage(List<OrderDto> orders, boolean hasNext) {
+        String next = hasNext ? OrderCursor.encode(orders.get(orders.size() - 1).getId()) : null;
+        return new OrderPageDto(orders, next);
+    }
+
+    private void writeOrder(JsonGenerator generator, Order order) {
+        try {
+            orderWriter.writeValue(generator, mapper.orderToOrderDto(order));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: by its own entry, or by {@code *} when gzip isn't listed, with a q-value
+     * above 0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        Double q = gzip != null ? gzip : any;
+        return q != null && q > 0;
+    }
+
+    /**
+     * Gzip stream whose deflater can be freed without closing the response, also when the export fails or the client
+     * goes away.
+     */
+    private static final class ExportGzipStream extends GZIPOutputStream {
+
+        private ExportGzipStream(OutputStream out) throws IOException {
+            super(out, GZIP_BUFFER_SIZE);
+        }
+
+        private void release() {
+            def.end();
+        }
+    }
+
 }
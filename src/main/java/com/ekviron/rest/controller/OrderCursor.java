@@ -0,0 +1,41 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over order ids. Clients must treat the value as a token and pass it back unchanged.
+ */
+final class OrderCursor {
+
+    private static final String PREFIX = "id:";
+
+    private OrderCursor() {
+    }
+
+    static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return id after which the next page starts, 0 for the first page
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException as well
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.ProductDto;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * The constraints declared on {@link OrderDto} and {@link ProductDto}, checked by plain code instead of Bean
+ * Validation's reflective walk over every product. Violations carry the codes and messages Bean Validation would
+ * report. A change of the DTO constraints has to be made here as well.
+ */
+@Component
+class OrderDtoValidator implements Validator {
+
+    static final int PARTY_LENGTH = 9;
+    static final int CODE_LENGTH = 13;
+
+    private static final String NOT_BLANK = "NotBlank";
+    private static final String NOT_BLANK_MESSAGE = "must not be blank";
+    private static final String SIZE = "Size";
+    private static final String NOT_EMPTY = "NotEmpty";
+    private static final String NOT_EMPTY_MESSAGE = "must not be empty";
+    // product index of the order's own fields
+    private static final int ORDER = -1;
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return OrderDto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        OrderDto order = (OrderDto) target;
+        checkFixedLength(errors, ORDER, "seller", order.getSeller(), PARTY_LENGTH);
+        checkFixedLength(errors, ORDER, "customer", order.getCustomer(), PARTY_LENGTH);
+        List<ProductDto> products = order.getProducts();
+        if (products == null || products.isEmpty()) {
+            errors.rejectValue("products", NOT_EMPTY, NOT_EMPTY_MESSAGE);
+            return;
+        }
+        for (int i = 0; i < products.size(); i++) {
+            ProductDto product = products.get(i);
+            if (product == null) {
+                // cascading skips null elements as well
+                continue;
+            }
+            if (isBlank(product.getName())) {
+                errors.rejectValue(productPath(i, "name"), NOT_BLANK, NOT_BLANK_MESSAGE);
+            }
+            checkFixedLength(errors, i, "code", product.getCode(), CODE_LENGTH);
+        }
+    }
+
+    /**
+     * {@code @NotBlank @Size(min = length, max = length)}. Null is blank only, as {@code @Size} accepts null.
+     *
+     * @param product index of the product, {@link #ORDER} for a field of the order
+     */
+    private static void checkFixedLength(Errors errors, int product, String field, String value, int length) {
+        if (value == null) {
+            errors.rejectValue(path(product, field), NOT_BLANK, NOT_BLANK_MESSAGE);
+            return;
+        }
+        if (value.length() != length) {
+            errors.rejectValue(path(product, field), SIZE, "size must be between " + length + " and " + length);
+        }
+        if (isBlank(value)) {
+            errors.rejectValue(path(product, field), NOT_BLANK, NOT_BLANK_MESSAGE);
+        }
+    }
+
+    // paths are only built for violations
+    private static String path(int product, String field) {
+        return product == ORDER ? field : productPath(product, field);
+    }
+
+    private static String productPath(int product, String field) {
+        return "products[" + product + "]." + field;
+    }
+
+    /**
+     * Same as {@code @NotBlank}: null, or nothing left after trimming.
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.repository.OrderVersion;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Entity tags of orders and order pages, built from ids and versions only so they can be checked before the orders are
+ * loaded. A strong tag stands for the uncompressed JSON body. Responses the connector may compress, which it only does
+ * for weak tags, and CBOR responses get the weak tag instead.
+ */
+final class OrderETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String WEAK = "W/";
+    // matches no stored version
+    private static final long UNKNOWN_VERSION = -1;
+
+    private OrderETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return tag(id + "." + version);
+    }
+
+    static String ofSummary(Long id, Long version) {
+        return tag("s." + id + "." + version);
+    }
+
+    /**
+     * Tag of a page: a hash over ids, versions and whether a next page exists, all that the page body depends on.
+     */
+    static String ofPage(Slice<? extends OrderVersion> page) {
+        return tag("p." + hash(page));
+    }
+
+    static String ofSummaryPage(Slice<? extends OrderVersion> page) {
+        return tag("sp." + hash(page));
+    }
+
+    /**
+     * Tag as sent to the current request, strong outside of requests.
+     */
+    private static String tag(String opaque) {
+        String tag = "\"" + opaque + "\"";
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return tag;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        return cbor || OrderControllerV1Impl.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+            ? WEAK + tag
+            : tag;
+    }
+
+    private static String hash(Slice<? extends OrderVersion> page) {
+        long hash = FNV_OFFSET;
+        for (OrderVersion order : page) {
+            hash = mix(hash, order.getId());
+            hash = mix(hash, order.getVersion());
+        }
+        hash = mix(hash, page.hasNext() ? 1 : 0);
+        return Long.toHexString(hash);
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String expected = strong(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || strong(tag).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version required by If-Match, null when any version will do. Entity tags are compared strongly, so a weak tag,
+     * a tag of another order or a list of tags gives a version no order has.
+     */
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        String prefix = "\"" + id + ".";
+        if (tag.length() > prefix.length() + 1 && tag.startsWith(prefix) && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException e) {
+                return UNKNOWN_VERSION;
+            }
+        }
+        return UNKNOWN_VERSION;
+    }
+
+    private static String strong(String tag) {
+        return tag.startsWith(WEAK) ? tag.substring(WEAK.length()) : tag;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.ekviron.rest.controller;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.ProductDto;
+import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.service.OrderService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes all orders as NDJSON or CSV while reading them from the database cursor. One order is held at a time and
+ * writes block while the client doesn't read, which in turn stops the cursor, so memory doesn't depend on the table
+ * size or the client speed.
+ */
+@Component
+class OrderExporter {
+
+    static final String NDJSON = "ndjson";
+    static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "order_id,seller,customer,version,product_id,product_name,product_code";
+
+    private final OrderService service;
+    private final OrderMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter orderWriter;
+
+    OrderExporter(OrderService service, OrderMapper mapper, ObjectMapper objectMapper) {
+        this.service = service;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.orderWriter = objectMapper.writerFor(OrderDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    void export(String format, OutputStream out) throws IOException {
+        if (CSV.equals(format)) {
+            exportCsv(out);
+        } else {
+            exportNdjson(out);
+        }
+    }
+
+    /**
+     * One order per line.
+     */
+    private void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            service.streamOrders(order -> {
+                try {
+                    orderWriter.writeValue(generator, mapper.orderToOrderDto(order));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * One product per line, order columns repeated. Orders without products get one line with empty product columns.
+     */
+    private void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        service.streamOrders(order -> {
+            try {
+                OrderDto dto = mapper.orderToOrderDto(order);
+                if (dto.getProducts() == null || dto.getProducts().isEmpty()) {
+                    writeCsvRow(writer, dto, null);
+                } else {
+                    for (ProductDto product : dto.getProducts()) {
+                        writeCsvRow(writer, dto, product);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, OrderDto order, ProductDto product) throws IOException {
+        writer.write(String.valueOf(order.getId()));
+        writer.write(',');
+        writeCsvField(writer, order.getSeller());
+        writer.write(',');
+        writeCsvField(writer, order.getCustomer());
+        writer.write(',');
+        writer.write(String.valueOf(order.getVersion()));
+        writer.write(',');
+        if (product != null) {
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writeCsvField(writer, product.getName());
+            writer.write(',');
+            writeCsvField(writer, product.getCode());
+        } else {
+            writer.write(",,");
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 quoting: fields with separators, quotes or line breaks are quoted, quotes doubled.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+}
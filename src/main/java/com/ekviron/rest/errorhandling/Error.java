@@ -7,8 +7,8 @@ import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import javax.validation.ConstraintViolation;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,7 +21,7 @@ import org.springframework.validation.ObjectError;
 @Data
 @JsonTypeInfo(include = JsonTypeInfo.As.WRAPPER_OBJECT, use = JsonTypeInfo.Id.CUSTOM, property = "error", visible = true)
 @JsonTypeIdResolver(LowerCaseClassNameResolver.class)
-class Error {
+public class Error {
 
     private HttpStatus status;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy hh:mm:ss")
@@ -34,7 +34,7 @@ class Error {
         timestamp = LocalDateTime.now();
     }
 
-    Error(HttpStatus status) {
+    public Error(HttpStatus status) {
         this();
         this.status = status;
     }
@@ -46,7 +46,7 @@ class Error {
         this.debugMessage = ex.getLocalizedMessage();
     }
 
-    Error(HttpStatus status, String message, Throwable ex) {
+    public Error(HttpStatus status, String message, Throwable ex) {
         this();
         this.status = status;
         this.message = message;
@@ -76,7 +76,7 @@ class Error {
             fieldError.getDefaultMessage());
     }
 
-    void addValidationErrors(List<FieldError> fieldErrors) {
+    public void addValidationErrors(List<FieldError> fieldErrors) {
         fieldErrors.forEach(this::addValidationError);
     }
 
@@ -103,7 +103,7 @@ class Error {
             cv.getMessage());
     }
 
-    void addValidationErrors(Set<ConstraintViolation<?>> constraintViolations) {
+    public void addValidationErrors(Collection<? extends ConstraintViolation<?>> constraintViolations) {
         constraintViolations.forEach(this::addValidationError);
     }
 
@@ -0,0 +1,109 @@
+package com.ekviron.rest.errorhandling;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Error response of one status written from pre-encoded parts. Gives the same JSON as {@link Error} with a message,
+ * a debug message and no sub errors, but neither builds the {@link Error} nor goes through Jackson databind: a
+ * response costs the escaped messages and the body array.
+ */
+public final class ErrorTemplate {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy hh:mm:ss");
+    private static final byte[] MESSAGE = bytes("\",\"message\":");
+    private static final byte[] DEBUG_MESSAGE = bytes(",\"debugMessage\":");
+    private static final byte[] TAIL = bytes(",\"subErrors\":null}}");
+    private static final byte[] NULL = bytes("null");
+
+    // timestamps have second precision, one formatting per second is enough
+    private static volatile Timestamp timestamp = new Timestamp(-1, new byte[0]);
+
+    private final HttpStatus status;
+    private final byte[] head;
+
+    public ErrorTemplate(HttpStatus status) {
+        this.status = status;
+        this.head = bytes("{\"error\":{\"status\":\"" + status.name() + "\",\"timestamp\":\"");
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    ResponseEntity<Object> response(String message, String debugMessage) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(render(message, debugMessage));
+    }
+
+    public byte[] render(String message, String debugMessage) {
+        byte[] time = timestamp();
+        byte[] escapedMessage = escape(message);
+        byte[] escapedDebugMessage = escape(debugMessage);
+        byte[] body = new byte[head.length + time.length + MESSAGE.length + length(escapedMessage)
+            + DEBUG_MESSAGE.length + length(escapedDebugMessage) + TAIL.length];
+        int position = put(body, 0, head);
+        position = put(body, position, time);
+        position = put(body, position, MESSAGE);
+        position = putString(body, position, escapedMessage);
+        position = put(body, position, DEBUG_MESSAGE);
+        position = putString(body, position, escapedDebugMessage);
+        put(body, position, TAIL);
+        return body;
+    }
+
+    private static byte[] timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            current = new Timestamp(second, bytes(TIMESTAMP_FORMAT.format(LocalDateTime.now())));
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private static byte[] escape(String value) {
+        return value != null ? JsonStringEncoder.getInstance().quoteAsUTF8(value) : null;
+    }
+
+    private static int length(byte[] escaped) {
+        return escaped != null ? escaped.length + 2 : NULL.length;
+    }
+
+    private static int putString(byte[] body, int position, byte[] escaped) {
+        if (escaped == null) {
+            return put(body, position, NULL);
+        }
+        body[position++] = '"';
+        position = put(body, position, escaped);
+        body[position++] = '"';
+        return position;
+    }
+
+    private static int put(byte[] body, int position, byte[] part) {
+        System.arraycopy(part, 0, body, position, part.length);
+        return position + part.length;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Timestamp {
+
+        private final long second;
+        private final byte[] bytes;
+
+        private Timestamp(long second, byte[] bytes) {
+            this.second = second;
+            this.bytes = bytes;
+        }
+    }
+
+}
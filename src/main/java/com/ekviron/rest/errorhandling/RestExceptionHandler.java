@@ -3,15 +3,31 @@ package com.ekviron.rest.errorhandling;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
 import com.ekviron.rest.exception.EntityAlreadyExistException;
 import com.ekviron.rest.exception.EntityNotFoundException;
+import com.ekviron.rest.exception.EntityVersionMismatchException;
+import com.ekviron.rest.exception.IdempotencyKeyInProgressException;
+import com.ekviron.rest.exception.IdempotencyKeyReusedException;
+import com.ekviron.rest.exception.InvalidCursorException;
+import com.ekviron.rest.exception.ProductNameMismatchException;
+import com.ekviron.rest.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import javax.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpHeaders;
@@ -32,8 +48,28 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 @Slf4j
 @ControllerAdvice
 @Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+    static final String ERRORS_METRIC = "ekviron.errors";
+
+    // fixed shape errors, written without building an Error
+    private static final ErrorTemplate NOT_FOUND_ERROR = new ErrorTemplate(NOT_FOUND);
+    private static final ErrorTemplate CONFLICT_ERROR = new ErrorTemplate(CONFLICT);
+    private static final ErrorTemplate PRECONDITION_FAILED_ERROR = new ErrorTemplate(PRECONDITION_FAILED);
+    private static final ErrorTemplate BAD_REQUEST_ERROR = new ErrorTemplate(BAD_REQUEST);
+    private static final ErrorTemplate UNPROCESSABLE_ENTITY_ERROR = new ErrorTemplate(UNPROCESSABLE_ENTITY);
+    private static final ErrorTemplate SERVICE_UNAVAILABLE_ERROR = new ErrorTemplate(SERVICE_UNAVAILABLE);
+
+    private final MeterRegistry meterRegistry;
+
+    // counters by exception type and status, registered once
+    private final ClassValue<Map<HttpStatus, Counter>> errorCounters = new ClassValue<Map<HttpStatus, Counter>>() {
+        @Override
+        protected Map<HttpStatus, Counter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     /**
      * Handle MissingServletRequestParameterException. Triggered when a 'required' request parameter is missing.
@@ -50,7 +86,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         HttpStatus status, WebRequest request
     ) {
         val error = ex.getParameterName() + " parameter is missing";
-        return buildResponseEntity(new Error(BAD_REQUEST, error, ex));
+        return buildResponseEntity(new Error(BAD_REQUEST, error, ex), ex);
     }
 
 
@@ -75,7 +111,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         builder.append(" media type is not supported. Supported media types are ");
         ex.getSupportedMediaTypes().forEach(t -> builder.append(t).append(", "));
         return buildResponseEntity(
-            new Error(HttpStatus.UNSUPPORTED_MEDIA_TYPE, builder.substring(0, builder.length() - 2), ex));
+            new Error(HttpStatus.UNSUPPORTED_MEDIA_TYPE, builder.substring(0, builder.length() - 2), ex), ex);
     }
 
     /**
@@ -98,7 +134,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         error.setMessage("Validation error");
         error.addValidationErrors(ex.getBindingResult().getFieldErrors());
         error.addValidationError(ex.getBindingResult().getGlobalErrors());
-        return buildResponseEntity(error);
+        return buildResponseEntity(error, ex);
     }
 
     /**
@@ -112,7 +148,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         val error = new Error(BAD_REQUEST);
         error.setMessage("Validation error");
         error.addValidationErrors(ex.getConstraintViolations());
-        return buildResponseEntity(error);
+        return buildResponseEntity(error, ex);
     }
 
 
@@ -125,23 +161,57 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(EntityNotFoundException.class)
     protected ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
-        val error = new Error(NOT_FOUND);
-        error.setMessage(ex.getMessage());
-        return buildResponseEntity(error);
+        return buildResponseEntity(NOT_FOUND_ERROR, ex.getMessage(), null, ex);
     }
 
     @ExceptionHandler(EntityAlreadyExistException.class)
     protected ResponseEntity<Object> handleEntityNotFound(EntityAlreadyExistException ex) {
-        val error = new Error(CONFLICT);
-        error.setMessage(ex.getMessage());
-        return buildResponseEntity(error);
+        return buildResponseEntity(CONFLICT_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(EntityVersionMismatchException.class)
+    protected ResponseEntity<Object> handleEntityVersionMismatch(EntityVersionMismatchException ex) {
+        return buildResponseEntity(PRECONDITION_FAILED_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    protected ResponseEntity<Object> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        return buildResponseEntity(CONFLICT_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    protected ResponseEntity<Object> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return buildResponseEntity(UNPROCESSABLE_ENTITY_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(ProductNameMismatchException.class)
+    protected ResponseEntity<Object> handleProductNameMismatch(ProductNameMismatchException ex) {
+        return buildResponseEntity(UNPROCESSABLE_ENTITY_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex) {
+        return buildResponseEntity(BAD_REQUEST_ERROR, ex.getMessage(), null, ex);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    protected ResponseEntity<Object> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return buildResponseEntity(SERVICE_UNAVAILABLE_ERROR, ex.getMessage(), null, ex);
+    }
+
+    /**
+     * Handle rejections of a full executor, answered the same as ServiceOverloadedException.
+     */
+    @ExceptionHandler({TaskRejectedException.class, RejectedExecutionException.class})
+    protected ResponseEntity<Object> handleTaskRejected(RejectedExecutionException ex) {
+        return buildResponseEntity(SERVICE_UNAVAILABLE_ERROR, ServiceOverloadedException.MESSAGE, null, ex);
     }
 
     @ExceptionHandler(EmptyResultDataAccessException.class)
     protected ResponseEntity<Object> handleEntityNotFound(EmptyResultDataAccessException ex) {
         val error = new Error(CONFLICT);
         error.setMessage(ex.getMessage());
-        return buildResponseEntity(error);
+        return buildResponseEntity(error, ex);
     }
 
     /**
@@ -162,7 +232,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     ) {
         val servletWebRequest = (ServletWebRequest) request;
         log.info("{} to {}", servletWebRequest.getHttpMethod(), servletWebRequest.getRequest().getServletPath());
-        return buildResponseEntity(new Error(BAD_REQUEST, "Malformed JSON request", ex));
+        return buildResponseEntity(BAD_REQUEST_ERROR, "Malformed JSON request", ex.getLocalizedMessage(), ex);
     }
 
     /**
@@ -181,7 +251,8 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         HttpStatus status,
         WebRequest request
     ) {
-        return buildResponseEntity(new Error(HttpStatus.INTERNAL_SERVER_ERROR, "Error writing JSON output", ex));
+        return buildResponseEntity(
+            new Error(HttpStatus.INTERNAL_SERVER_ERROR, "Error writing JSON output", ex), ex);
     }
 
     /**
@@ -189,7 +260,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(javax.persistence.EntityNotFoundException.class)
     protected ResponseEntity<Object> handleEntityNotFound(javax.persistence.EntityNotFoundException ex) {
-        return buildResponseEntity(new Error(NOT_FOUND, ex));
+        return buildResponseEntity(NOT_FOUND_ERROR, "Unexpected error", ex.getLocalizedMessage(), ex);
     }
 
     /**
@@ -204,10 +275,10 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         WebRequest request
     ) {
         if (ex.getCause() instanceof ConstraintViolationException) {
-            return buildResponseEntity(new Error(CONFLICT, "Database error", ex.getCause()));
+            return buildResponseEntity(new Error(CONFLICT, "Database error", ex.getCause()), ex);
         }
 
-        return buildResponseEntity(new Error(HttpStatus.INTERNAL_SERVER_ERROR, ex));
+        return buildResponseEntity(new Error(HttpStatus.INTERNAL_SERVER_ERROR, ex), ex);
     }
 
     /**
@@ -227,12 +298,51 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
             ex.getName(), ex.getValue(), Objects.requireNonNull(ex.getRequiredType()).getSimpleName()
         ));
         error.setDebugMessage(ex.getMessage());
-        return buildResponseEntity(error);
+        return buildResponseEntity(error, ex);
     }
 
 
-    private ResponseEntity<Object> buildResponseEntity(Error error) {
+    /**
+     * Counts errors built by Spring for exceptions without an own handler.
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(
+        Exception ex,
+        Object body,
+        HttpHeaders headers,
+        HttpStatus status,
+        WebRequest request
+    ) {
+        countError(status, ex);
+        return super.handleExceptionInternal(ex, body, headers, status, request);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(Error error, Exception ex) {
+        countError(error.getStatus(), ex);
         return new ResponseEntity<>(error, error.getStatus());
     }
 
+    private ResponseEntity<Object> buildResponseEntity(
+        ErrorTemplate template,
+        String message,
+        String debugMessage,
+        Exception ex
+    ) {
+        countError(template.getStatus(), ex);
+        return template.response(message, debugMessage);
+    }
+
+    private void countError(HttpStatus status, Exception ex) {
+        Map<HttpStatus, Counter> counters = errorCounters.get(ex.getClass());
+        Counter counter = counters.get(status);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(status, key -> Counter.builder(ERRORS_METRIC)
+                .description("Error responses by status and exception")
+                .tag("status", String.valueOf(key.value()))
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
 }
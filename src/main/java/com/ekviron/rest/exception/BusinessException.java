@@ -0,0 +1,13 @@
+package com.ekviron.rest.exception;
+
+/**
+ * Base of exceptions that end up as an error response: no stack trace is filled and no suppressed list is kept, so
+ * throwing one costs about as much as the message.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+
+}
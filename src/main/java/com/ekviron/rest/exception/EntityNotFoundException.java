@@ -5,7 +5,7 @@ import java.util.Map;
 import java.util.stream.IntStream;
 import org.springframework.util.StringUtils;
 
-public class EntityNotFoundException extends RuntimeException {
+public class EntityNotFoundException extends BusinessException {
 
     public EntityNotFoundException(Class<?> clazz, String... searchParamsMap) {
         super(EntityNotFoundException.generateMessage(
@@ -13,12 +13,6 @@ public class EntityNotFoundException extends RuntimeException {
         ));
     }
 
-    @Override
-    // don't feel stack trace for business exception
-    public synchronized Throwable fillInStackTrace() {
-        return null;
-    }
-
     private static String generateMessage(String entity, Map<String, String> searchParams) {
         return StringUtils.capitalize(entity) + " was not found for parameters " + searchParams;
     }
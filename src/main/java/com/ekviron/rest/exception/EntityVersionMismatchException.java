@@ -0,0 +1,15 @@
+package com.ekviron.rest.exception;
+
+import org.springframework.util.StringUtils;
+
+public class EntityVersionMismatchException extends BusinessException {
+
+    public EntityVersionMismatchException(Class<?> clazz, Long id) {
+        super(EntityVersionMismatchException.generateMessage(clazz.getSimpleName(), id));
+    }
+
+    private static String generateMessage(String entity, Long id) {
+        return StringUtils.capitalize(entity) + " " + id + " was changed since the given version";
+    }
+
+}
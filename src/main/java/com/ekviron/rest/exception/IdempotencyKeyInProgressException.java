@@ -0,0 +1,9 @@
+package com.ekviron.rest.exception;
+
+public class IdempotencyKeyInProgressException extends BusinessException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("Request with idempotency key '" + key + "' is still in progress, retry later");
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.ekviron.rest.exception;
+
+public class IdempotencyKeyReusedException extends BusinessException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key '" + key + "' was already used with a different request");
+    }
+
+}
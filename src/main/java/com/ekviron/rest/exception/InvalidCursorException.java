@@ -0,0 +1,9 @@
+package com.ekviron.rest.exception;
+
+public class InvalidCursorException extends BusinessException {
+
+    public InvalidCursorException(String cursor) {
+        super("Cursor '" + cursor + "' is invalid");
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.ekviron.rest.exception;
+
+public class ProductNameMismatchException extends BusinessException {
+
+    public ProductNameMismatchException(String code, String name, String catalogName) {
+        super("Product '" + code + "' is named '" + catalogName + "' in the catalog, not '" + name + "'");
+    }
+
+}
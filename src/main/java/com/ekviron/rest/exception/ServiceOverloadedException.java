@@ -0,0 +1,11 @@
+package com.ekviron.rest.exception;
+
+public class ServiceOverloadedException extends BusinessException {
+
+    public static final String MESSAGE = "Service is overloaded, retry later";
+
+    public ServiceOverloadedException() {
+        super(MESSAGE);
+    }
+
+}
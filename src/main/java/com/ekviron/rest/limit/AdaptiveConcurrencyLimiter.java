@@ -0,0 +1,72 @@
+package com.ekviron.rest.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limit of requests in progress that follows the service's latency (AIMD): a full window of fast responses raises
+ * the limit by one, a slow or failed response cuts it by a tenth, at most once per latency threshold so one burst of
+ * slow responses doesn't collapse it. Excess requests are refused right away instead of queueing for threads and
+ * connections.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger fastResponses = new AtomicInteger();
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = new AtomicInteger(Math.min(this.maxLimit, Math.max(minLimit, initialLimit)));
+        this.lastDecrease = new AtomicLong(System.nanoTime() - latencyThresholdNanos - 1);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit and adapts the limit.
+     *
+     * @param failed whether the service failed the request, e.g. it was overloaded
+     */
+    public void release(long latencyNanos, long nowNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            long last = lastDecrease.get();
+            if (nowNanos - last > latencyThresholdNanos && lastDecrease.compareAndSet(last, nowNanos)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * BACKOFF)));
+                fastResponses.set(0);
+            }
+        } else if (fastResponses.incrementAndGet() >= limit.get()) {
+            fastResponses.set(0);
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
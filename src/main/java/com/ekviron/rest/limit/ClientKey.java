@@ -0,0 +1,26 @@
+package com.ekviron.rest.limit;
+
+import com.ekviron.rest.config.LimitProperties;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Tells clients apart: by the client header when a trusted proxy sent the request, otherwise by remote address. A
+ * header any caller can set would let it pose as any client or as many as it likes.
+ */
+public final class ClientKey {
+
+    private ClientKey() {
+    }
+
+    public static String of(HttpServletRequest request, LimitProperties properties) {
+        String address = request.getRemoteAddr();
+        if (properties.getTrustedProxies().contains(address)) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return address;
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.ekviron.rest.limit;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+import com.ekviron.rest.config.LimitProperties;
+import com.ekviron.rest.errorhandling.ErrorTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds order API load before it reaches a handler thread, the service or the connection pool: requests over the
+ * rate of their client or of the node get 429 with Retry-After, requests over the adaptive concurrency limit get 503.
+ * Streaming, export and feed requests are rate limited only, they run as long as the table is read or wait for
+ * events.
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTIONS_METRIC = "ekviron.limits.rejections";
+
+    private static final ErrorTemplate TOO_MANY_REQUESTS_ERROR = new ErrorTemplate(TOO_MANY_REQUESTS);
+    private static final ErrorTemplate SERVICE_UNAVAILABLE_ERROR = new ErrorTemplate(SERVICE_UNAVAILABLE);
+
+    private final LimitProperties properties;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final TokenBucket globalBucket;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Counter clientRejections;
+    private final Counter globalRejections;
+    private final Counter concurrencyRejections;
+
+    public RequestLimitFilter(LimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clientBuckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxClients())
+            // an idle client's bucket is full again after burst / rate, a new one starts the same way
+            .expireAfterAccess(refillNanos(properties.getClient()), TimeUnit.NANOSECONDS)
+            .build();
+        LimitProperties.Rate global = properties.getGlobal();
+        this.globalBucket = new TokenBucket(global.getPermitsPerSecond(), global.getBurst(), System.nanoTime());
+        LimitProperties.Concurrency concurrency = properties.getConcurrency();
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+            concurrency.getInitialLimit(),
+            concurrency.getMinLimit(),
+            concurrency.getMaxLimit(),
+            concurrency.getLatencyThreshold().toNanos()
+        );
+        this.clientRejections = rejections(meterRegistry, "client_rate");
+        this.globalRejections = rejections(meterRegistry, "global_rate");
+        this.concurrencyRejections = rejections(meterRegistry, "concurrency");
+        Gauge.builder("ekviron.limits.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .register(meterRegistry);
+        Gauge.builder("ekviron.limits.concurrency.in_flight", concurrencyLimiter,
+            AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Limited requests in progress")
+            .register(meterRegistry);
+        Gauge.builder("ekviron.limits.clients", clientBuckets, Cache::estimatedSize)
+            .description("Clients with own rate limit state")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        long now = System.nanoTime();
+        String client = ClientKey.of(request, properties);
+        long wait = clientBuckets.get(client, key -> newClientBucket(now)).tryAcquire(now);
+        if (wait > 0) {
+            clientRejections.increment();
+            reject(response, TOO_MANY_REQUESTS_ERROR, "Rate limit of client '" + client + "' exceeded", wait);
+            return;
+        }
+        wait = globalBucket.tryAcquire(now);
+        if (wait > 0) {
+            globalRejections.increment();
+            reject(response, TOO_MANY_REQUESTS_ERROR, "Rate limit of the service exceeded", wait);
+            return;
+        }
+        if (isLongRunning(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejections.increment();
+            reject(response, SERVICE_UNAVAILABLE_ERROR, "Service is overloaded, retry later", 0);
+            return;
+        }
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // offloaded handler, the permit is held until the response is done
+                request.getAsyncContext().addListener(new ReleasingListener(now, response));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                release(now, response);
+            }
+        }
+    }
+
+    private void release(long start, HttpServletResponse response) {
+        long now = System.nanoTime();
+        concurrencyLimiter.release(now - start, now, response.getStatus() >= 500);
+    }
+
+    private TokenBucket newClientBucket(long now) {
+        LimitProperties.Rate rate = properties.getClient();
+        return new TokenBucket(rate.getPermitsPerSecond(), rate.getBurst(), now);
+    }
+
+    private static boolean isLongRunning(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.endsWith(":stream") || uri.endsWith(":export") || uri.endsWith(":feed");
+    }
+
+    private static void reject(HttpServletResponse response, ErrorTemplate error, String message, long waitNanos)
+        throws IOException {
+        response.setStatus(error.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (waitNanos > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        }
+        response.getOutputStream().write(error.render(message, null));
+    }
+
+    private static long refillNanos(LimitProperties.Rate rate) {
+        return (long) (TimeUnit.SECONDS.toNanos(1) * rate.getBurst() / rate.getPermitsPerSecond());
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(REJECTIONS_METRIC)
+            .description("Order API requests rejected by the limits")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private class ReleasingListener implements AsyncListener {
+
+        private final long start;
+        private final HttpServletResponse response;
+
+        private ReleasingListener(long start, HttpServletResponse response) {
+            this.start = start;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(start, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // completion follows
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // completion follows
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the same request dispatched again, still one permit
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.ekviron.rest.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (GCRA): every permit moves it one interval ahead, a permit is
+ * refused when it would move it more than the burst ahead of now. One CAS per permit, no lock and no refill thread.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        // starts full
+        this.theoreticalArrival = new AtomicLong(nowNanos - burstNanos);
+    }
+
+    /**
+     * @return 0 if a permit was taken, otherwise nanos until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - nowNanos > 0 ? arrival : nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.ekviron.rest.mapper;
+
+import com.ekviron.rest.api.dto.OrderEventDto;
+import com.ekviron.rest.model.OrderEvent;
+import java.util.List;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface OrderEventMapper {
+
+    @Mapping(target = "offset", source = "feedOffset")
+    OrderEventDto orderEventToOrderEventDto(OrderEvent event);
+
+    List<OrderEventDto> orderEventsToOrderEventDtos(List<OrderEvent> events);
+
+}
@@ -1,9 +1,12 @@
 package com.ekviron.rest.mapper;
 
 import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.OrderPatchDto;
 import com.ekviron.rest.model.Order;
+import com.ekviron.rest.repository.OrderSummary;
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring", uses = ProductMapper.class)
 public interface OrderMapper {
@@ -12,6 +15,24 @@ public interface OrderMapper {
 
     Order orderDtoToOrder(OrderDto orderDto);
 
+    /**
+     * Changes of an update, absent fields stay null.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Order orderPatchDtoToOrder(OrderPatchDto patch);
+
     List<OrderDto> ordersToOrderDtos(List<Order> order);
 
+    @Mapping(target = "products", ignore = true)
+    OrderDto orderSummaryToOrderDto(OrderSummary summary);
+
+    List<OrderDto> orderSummariesToOrderDtos(List<OrderSummary> summaries);
+
+    /**
+     * Copy of the order without products.
+     */
+    @Mapping(target = "products", ignore = true)
+    OrderDto orderDtoToSummary(OrderDto order);
+
 }
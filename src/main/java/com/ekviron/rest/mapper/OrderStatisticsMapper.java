@@ -0,0 +1,12 @@
+package com.ekviron.rest.mapper;
+
+import com.ekviron.rest.api.dto.OrderStatsDto;
+import com.ekviron.rest.service.OrderStatistics;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface OrderStatisticsMapper {
+
+    OrderStatsDto orderStatisticsToOrderStatsDto(OrderStatistics statistics);
+
+}
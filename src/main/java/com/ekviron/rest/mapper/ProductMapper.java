@@ -1,14 +1,21 @@
 package com.ekviron.rest.mapper;
 
 import com.ekviron.rest.api.dto.ProductDto;
+import com.ekviron.rest.model.CatalogProduct;
 import com.ekviron.rest.model.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = CatalogProduct.class)
 public interface ProductMapper {
 
     ProductDto productToProductDto(Product order);
 
+    /**
+     * Product pointing at an unsaved catalog entry of its code, resolved by ProductCatalogService before saving.
+     */
+    @Mapping(target = "catalogProduct",
+        expression = "java(new CatalogProduct(orderDto.getCode(), orderDto.getName()))")
     Product productDtoToProduct(ProductDto orderDto);
 
 }
@@ -0,0 +1,60 @@
+package com.ekviron.rest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the order controller and service. Distribution (percentiles, histogram buckets) is set
+ * by {@code management.metrics.distribution.*.ekviron.orders.operation}.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class OrderOperationMetricsAspect {
+
+    static final String METRIC = "ekviron.orders.operation";
+
+    private final MeterRegistry registry;
+    // successful calls are the hot path, skip the registry lookup for them
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.ekviron.rest.controller.OrderControllerV1Impl.*(..))"
+        + " || execution(public * com.ekviron.rest.service.OrderService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimer(method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer successTimer(Method method) {
+        Timer timer = successTimers.get(method);
+        return timer != null ? timer : successTimers.computeIfAbsent(method, m -> timer(m, "success"));
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder(METRIC)
+            .description("Time spent in order controller and service methods")
+            .tag("class", method.getDeclaringClass().getSimpleName())
+            .tag("method", method.getName())
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+}
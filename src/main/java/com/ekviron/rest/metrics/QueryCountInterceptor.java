@@ -0,0 +1,102 @@
+package com.ekviron.rest.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of SQL statements per request by endpoint. The counter belongs to the request and is bound to
+ * whatever thread works on it, including async threads of offloaded and streaming requests.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    static final String METRIC = "ekviron.orders.queries";
+
+    private static final String COUNTER_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".counter";
+
+    private final MeterRegistry registry;
+    // summaries by method and uri, every request records one
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AtomicInteger counter = (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null || request.getDispatcherType() != DispatcherType.ASYNC) {
+            counter = new AtomicInteger();
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+            WebAsyncUtils.getAsyncManager(request)
+                .registerCallableInterceptor(COUNTER_ATTRIBUTE, new BindingInterceptor(counter));
+        }
+        QueryCounter.bind(counter);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler
+    ) {
+        QueryCounter.unbind();
+    }
+
+    @Override
+    public void afterCompletion(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler,
+        Exception ex
+    ) {
+        QueryCounter.unbind();
+        AtomicInteger counter = (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE);
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        summary(request.getMethod(), uri != null ? uri.toString() : "UNKNOWN")
+            .record(counter != null ? counter.get() : 0);
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        String key = method + ' ' + uri;
+        DistributionSummary summary = summaries.get(key);
+        return summary != null ? summary : summaries.computeIfAbsent(key, k -> DistributionSummary.builder(METRIC)
+            .description("SQL statements per request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(registry));
+    }
+
+    private static class BindingInterceptor implements CallableProcessingInterceptor {
+
+        private final AtomicInteger counter;
+
+        BindingInterceptor(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            QueryCounter.bind(counter);
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            QueryCounter.unbind();
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.ekviron.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements prepared by Hibernate into the counter bound to the current thread.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static void bind(AtomicInteger counter) {
+        CURRENT.set(counter);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.ekviron.rest.migration;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Moves order ids from identity to the pooled order_seq and aligns product_seq with the configured allocation size.
+ * Both sequences continue after the existing rows. Baselined schemas Hibernate built with its default generator have
+ * hibernate_sequence instead of product_seq, there product_seq is created; hibernate_sequence is left alone.
+ */
+public class V2__Pooled_sequence_ids extends BaseJavaMigration {
+
+    static final String ALLOCATION_SIZE_PLACEHOLDER = "id_allocation_size";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        long allocationSize = Long.parseLong(context.getConfiguration().getPlaceholders()
+            .getOrDefault(ALLOCATION_SIZE_PLACEHOLDER, "50"));
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("create sequence order_seq start with " + start(statement, "order_t", allocationSize)
+                + " increment by " + allocationSize);
+            String productSeq = sequenceExists(statement, "product_seq")
+                ? "alter sequence product_seq restart with "
+                : "create sequence product_seq start with ";
+            statement.execute(productSeq + start(statement, "product_t", allocationSize)
+                + " increment by " + allocationSize);
+        }
+    }
+
+    private static boolean sequenceExists(Statement statement, String sequence) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select count(*) from information_schema.sequences "
+            + "where lower(sequence_name) = '" + sequence + "' and sequence_schema = current_schema()")) {
+            resultSet.next();
+            return resultSet.getLong(1) > 0;
+        }
+    }
+
+    /**
+     * The pooled optimizer takes a sequence value as the upper bound of the next block, except for the initial value
+     * 1. So an empty table starts at 1 and a filled one at the block right after its max id.
+     */
+    private static long start(Statement statement, String table, long allocationSize) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            resultSet.next();
+            long maxId = resultSet.getLong(1);
+            return maxId == 0 ? 1 : maxId + allocationSize;
+        }
+    }
+
+}
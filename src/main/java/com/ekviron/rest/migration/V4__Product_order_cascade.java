@@ -0,0 +1,43 @@
+package com.ekviron.rest.migration;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Lets the foreign key of product_t.order_id cascade on delete, so products go with their order in the same statement
+ * and bulk deletes of orders don't touch product_t themselves. Baselined schemas carry the key under the FK name
+ * Hibernate generated, so it is looked up by its column and dropped by its real name; the new one is named
+ * product_order_fk on every database.
+ */
+public class V4__Product_order_cascade extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String foreignKey : orderForeignKeys(statement)) {
+                statement.execute("alter table product_t drop constraint \"" + foreignKey + "\"");
+            }
+            statement.execute("create index product_order_idx on product_t (order_id)");
+            statement.execute("alter table product_t add constraint product_order_fk foreign key (order_id) "
+                + "references order_t on delete cascade");
+        }
+    }
+
+    private static List<String> orderForeignKeys(Statement statement) throws SQLException {
+        List<String> foreignKeys = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("select distinct fk_name "
+            + "from information_schema.cross_references where lower(fktable_name) = 'product_t' "
+            + "and lower(fkcolumn_name) = 'order_id' and fktable_schema = current_schema()")) {
+            while (resultSet.next()) {
+                foreignKeys.add(resultSet.getString(1));
+            }
+        }
+        return foreignKeys;
+    }
+
+}
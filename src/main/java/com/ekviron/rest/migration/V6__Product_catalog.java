@@ -0,0 +1,83 @@
+package com.ekviron.rest.migration;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Keeps products once per code in catalog_product, order lines reference them instead of repeating name and code.
+ * The first stored name of a code wins; codes stored with other names too are logged with all their names, so the
+ * catalog can be corrected.
+ */
+@Slf4j
+public class V6__Product_catalog extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        long allocationSize = Long.parseLong(context.getConfiguration().getPlaceholders()
+            .getOrDefault(V2__Pooled_sequence_ids.ALLOCATION_SIZE_PLACEHOLDER, "50"));
+        try (Statement statement = context.getConnection().createStatement()) {
+            reportNameConflicts(statement);
+
+            statement.execute("create sequence catalog_product_seq start with 1 increment by " + allocationSize);
+            statement.execute("create table catalog_product (id bigint not null, code varchar(13) not null, "
+                + "name varchar(255) not null, primary key (id))");
+            statement.execute("alter table catalog_product add constraint catalog_product_code_uk unique (code)");
+            // every row takes its own sequence value, so the pooled optimizer continues with the block after the
+            // last of them
+            statement.execute("insert into catalog_product (id, code, name) "
+                + "select next value for catalog_product_seq, p.code, p.name from product_t p "
+                + "where p.id in (select min(id) from product_t group by code) order by p.id");
+
+            statement.execute("alter table product_t add column catalog_id bigint");
+            statement.execute("update product_t p set catalog_id = "
+                + "(select c.id from catalog_product c where c.code = p.code)");
+            statement.execute("alter table product_t alter column catalog_id set not null");
+            statement.execute("create index product_catalog_idx on product_t (catalog_id)");
+            statement.execute("alter table product_t add constraint product_catalog_fk foreign key (catalog_id) "
+                + "references catalog_product");
+
+            statement.execute("drop index product_code_idx");
+            statement.execute("alter table product_t drop column code");
+            statement.execute("alter table product_t drop column name");
+        }
+    }
+
+    /**
+     * Logs every code stored with more than one name, names in the order they were first stored.
+     */
+    private static void reportNameConflicts(Statement statement) throws SQLException {
+        String code = null;
+        List<String> names = new ArrayList<>();
+        int conflicts = 0;
+        try (ResultSet resultSet = statement.executeQuery("select code, name, count(*) from product_t "
+            + "where code in (select code from product_t group by code having count(distinct name) > 1) "
+            + "group by code, name order by code, min(id)")) {
+            while (resultSet.next()) {
+                if (!resultSet.getString(1).equals(code)) {
+                    logNameConflict(code, names);
+                    code = resultSet.getString(1);
+                    names.clear();
+                    conflicts++;
+                }
+                names.add("'" + resultSet.getString(2) + "' on " + resultSet.getLong(3) + " lines");
+            }
+        }
+        logNameConflict(code, names);
+        if (conflicts > 0) {
+            log.warn("{} product codes were stored with different names, the catalog keeps the first one", conflicts);
+        }
+    }
+
+    private static void logNameConflict(String code, List<String> names) {
+        if (code != null) {
+            log.warn("Product {} was stored as {}, the catalog keeps {}", code, names, names.get(0));
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.ekviron.rest.model;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Product of the catalog, stored once per code and referenced by the order lines. Never changed after the insert, so
+ * loaded instances are shared between threads, see {@link com.ekviron.rest.service.ProductCatalogService}.
+ */
+@Getter
+@Entity
+@Immutable
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(
+    name = "catalog_product",
+    uniqueConstraints = @UniqueConstraint(name = "catalog_product_code_uk", columnNames = "code")
+)
+public class CatalogProduct {
+
+    @Id
+    @GeneratedValue(generator = "catalog_product_seq")
+    @GenericGenerator(name = "catalog_product_seq", strategy = "com.ekviron.rest.model.PooledSequenceGenerator",
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "catalog_product_seq"))
+    private Long id;
+
+    @NotBlank
+    @Size(min = 13, max = 13)
+    private String code;
+
+    @NotBlank
+    private String name;
+
+    /**
+     * Entry not saved yet, as received with an order.
+     */
+    public CatalogProduct(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+}
@@ -4,25 +4,40 @@ import java.util.List;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "order_t", uniqueConstraints = @UniqueConstraint(columnNames = {"seller", "customer"}))
+@Table(
+    name = "order_t",
+    uniqueConstraints = @UniqueConstraint(name = "order_seller_customer_uk", columnNames = {"seller", "customer"}),
+    // lookups by seller or customer are paged by id, the trailing id serves the keyset order without a sort
+    indexes = {
+        @Index(name = "order_seller_id_idx", columnList = "seller, id"),
+        @Index(name = "order_customer_id_idx", columnList = "customer, id")
+    }
+)
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_seq")
+    @GenericGenerator(name = "order_seq", strategy = "com.ekviron.rest.model.PooledSequenceGenerator",
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_seq"))
     private Long id;
 
     @NotBlank
@@ -33,8 +48,22 @@ public class Order {
     @Size(min = 9, max = 9)
     private String customer;
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "order_id")
+    @Version
+    private Long version;
+
+    // the foreign key cascades, deleting an order needs no product statements
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private List<Product> products;
 
+    /**
+     * Sets products and links them back to this order, so order_id is written by the product insert itself.
+     */
+    public void setProducts(List<Product> products) {
+        this.products = products;
+        if (products != null) {
+            products.forEach(product -> product.setOrder(this));
+        }
+    }
+
 }
@@ -0,0 +1,61 @@
+package com.ekviron.rest.model;
+
+import java.time.Instant;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change of an order. The feed offset is empty until the feed sequencer assigns it after the commit, ids are taken
+ * before the commit and don't follow the commit order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "order_event", indexes = {
+    @Index(name = "order_event_created_at_idx", columnList = "created_at"),
+    @Index(name = "order_event_feed_offset_uk", columnList = "feed_offset", unique = true)
+})
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_event_seq")
+    @SequenceGenerator(name = "order_event_seq", sequenceName = "order_event_seq", allocationSize = 1)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @NotNull
+    private Long orderId;
+
+    @NotNull
+    private Instant createdAt;
+
+    private Long feedOffset;
+
+    public OrderEvent(Type type, Long orderId, Instant createdAt) {
+        this.type = type;
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.ekviron.rest.model;
+
+import java.util.Map;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator with the pooled optimizer: one sequence call hands out a block of ids, so
+ * inserts don't wait for the database to return a key and can be batched. The allocation size is taken from the
+ * Hibernate settings and has to match the increment of the database sequence.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "ekviron.id.allocation_size";
+
+    private static final String DEFAULT_ALLOCATION_SIZE = "50";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        Object allocationSize = settings.get(ALLOCATION_SIZE_SETTING);
+        params.setProperty(
+            INCREMENT_PARAM,
+            allocationSize == null ? DEFAULT_ALLOCATION_SIZE : allocationSize.toString()
+        );
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+
+}
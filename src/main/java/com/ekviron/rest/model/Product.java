@@ -1,33 +1,52 @@
 package com.ekviron.rest.model;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+/**
+ * Line of an order. Name and code belong to the referenced catalog product.
+ */
 @Getter
 @Setter
 @Entity
-@Table(name = "product_t")
+@Table(name = "product_t", indexes = {
+    @Index(name = "product_catalog_idx", columnList = "catalog_id"),
+    @Index(name = "product_order_idx", columnList = "order_id")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(generator = "product_seq")
+    @GenericGenerator(name = "product_seq", strategy = "com.ekviron.rest.model.PooledSequenceGenerator",
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "product_seq"))
     private Long id;
 
-    @NotBlank
-    private String name;
+    // only the id is written, the catalog entry is saved beforehand by ProductCatalogService
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "catalog_id")
+    private CatalogProduct catalogProduct;
 
-    @NotBlank
-    @Size(min = 13, max = 13)
-    private String code;
-
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
     private Order order;
+
+    public String getName() {
+        return catalogProduct != null ? catalogProduct.getName() : null;
+    }
+
+    public String getCode() {
+        return catalogProduct != null ? catalogProduct.getCode() : null;
+    }
+
 }
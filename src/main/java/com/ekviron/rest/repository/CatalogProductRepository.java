@@ -0,0 +1,17 @@
+package com.ekviron.rest.repository;
+
+import com.ekviron.rest.model.CatalogProduct;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogProductRepository extends JpaRepository<CatalogProduct, Long> {
+
+    /**
+     * Catalog entries of the codes in one select over the code constraint, unknown codes are left out.
+     */
+    List<CatalogProduct> findByCodeIn(Collection<String> codes);
+
+}
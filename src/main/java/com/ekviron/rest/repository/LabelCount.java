@@ -0,0 +1,12 @@
+package com.ekviron.rest.repository;
+
+/**
+ * Projection of a grouped count.
+ */
+public interface LabelCount {
+
+    String getLabel();
+
+    long getTotal();
+
+}
@@ -0,0 +1,47 @@
+package com.ekviron.rest.repository;
+
+import com.ekviron.rest.model.OrderEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    @Query("select e from OrderEvent e where e.feedOffset > :after order by e.feedOffset")
+    List<OrderEvent> findAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("select e from OrderEvent e where e.feedOffset is null order by e.id")
+    List<OrderEvent> findUnsequenced(Pageable pageable);
+
+    /**
+     * Last assigned feed offset, locked until the end of the transaction so one sequencer runs at a time.
+     */
+    @Query(value = "select feed_offset from order_feed_head where id = 1 for update", nativeQuery = true)
+    long lockFeedHead();
+
+    @Modifying
+    @Query(value = "update order_feed_head set feed_offset = :offset where id = 1", nativeQuery = true)
+    int updateFeedHead(@Param("offset") long offset);
+
+    /**
+     * Deleted events of the existing orders among {@code ids}, to be run before the delete in the same transaction.
+     * The orders are not loaded.
+     */
+    @Modifying
+    @Query(value = "insert into order_event (id, type, order_id, created_at) "
+        + "select next value for order_event_seq, 'DELETED', o.id, :createdAt from order_t o where o.id in (:ids)",
+        nativeQuery = true)
+    int insertDeletedEvents(@Param("ids") Collection<Long> ids, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("delete from OrderEvent e where e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+
+}
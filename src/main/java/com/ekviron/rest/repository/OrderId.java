@@ -0,0 +1,10 @@
+package com.ekviron.rest.repository;
+
+/**
+ * Projection of the order id, derived queries returning it select the id column only.
+ */
+public interface OrderId {
+
+    Long getId();
+
+}
@@ -1,10 +1,113 @@
 package com.ekviron.rest.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.ekviron.rest.model.Order;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-}
\ No newline at end of file
+    /**
+     * Rows fetched from the driver per round-trip while streaming.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Keyset page: ids and versions of orders greater than {@code after}, sorted. The slice is read with one extra row
+     * to know whether a next page exists, no count query is issued.
+     */
+    @Query("select o.id as id, o.version as version from Order o where o.id > :after order by o.id")
+    Slice<OrderVersion> findVersionsAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Keyset page of orders without products, one select.
+     */
+    @Query("select o.id as id, o.seller as seller, o.customer as customer, o.version as version from Order o "
+        + "where o.id > :after order by o.id")
+    Slice<OrderSummary> findSummariesAfter(@Param("after") long after, Pageable pageable);
+
+    Optional<OrderSummary> findSummaryById(Long id);
+
+    /**
+     * Sellers with the most orders, grouped over the seller index.
+     */
+    @Query("select o.seller as label, count(o) as total from Order o "
+        + "group by o.seller order by count(o) desc, o.seller")
+    List<LabelCount> findTopSellers(Pageable pageable);
+
+    @Query("select o.version from Order o where o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Deletes orders without loading them, products are removed by the cascading foreign key. Bypasses the
+     * persistence context, run it in a transaction of its own.
+     *
+     * @return number of deleted orders
+     */
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of orders of the seller, served by the (seller, id) index. Pass a pageable sorted by id.
+     */
+    Slice<OrderId> findBySellerAndIdGreaterThan(String seller, long after, Pageable pageable);
+
+    /**
+     * Keyset page of orders of the customer, served by the (customer, id) index. Pass a pageable sorted by id.
+     */
+    Slice<OrderId> findByCustomerAndIdGreaterThan(String customer, long after, Pageable pageable);
+
+    /**
+     * Orders with their products and catalog entries in one select. Paging is done on ids beforehand, since limiting a
+     * collection fetch would be applied in memory.
+     */
+    @EntityGraph(attributePaths = {"products", "products.catalogProduct"})
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct o from Order o where o.id in :ids order by o.id")
+    List<Order> findAllWithProductsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"products", "products.catalogProduct"})
+    Optional<Order> findWithProductsById(Long id);
+
+    /**
+     * Keys {@code seller:customer} of existing orders. May contain pairs that weren't asked for, callers look the keys
+     * up anyway.
+     */
+    @Query("select concat(o.seller, ':', o.customer) from Order o "
+        + "where o.seller in :sellers and o.customer in :customers")
+    List<String> findKeysBySellerInAndCustomerIn(
+        @Param("sellers") Set<String> sellers,
+        @Param("customers") Set<String> customers
+    );
+
+    /**
+     * Forward-only cursor over all orders with their products and catalog entries sorted by id. Rows of one order
+     * are grouped by Hibernate, so an order is emitted once with the whole collection. Must be consumed inside a
+     * transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select o from Order o left join fetch o.products p left join fetch p.catalogProduct order by o.id")
+    Stream<Order> streamAll();
+
+}
@@ -0,0 +1,12 @@
+package com.ekviron.rest.repository;
+
+/**
+ * Projection of the order without products.
+ */
+public interface OrderSummary extends OrderVersion {
+
+    String getSeller();
+
+    String getCustomer();
+
+}
@@ -0,0 +1,12 @@
+package com.ekviron.rest.repository;
+
+/**
+ * Projection of the order id and version, enough to tell whether a client's copy is still current.
+ */
+public interface OrderVersion {
+
+    Long getId();
+
+    Long getVersion();
+
+}
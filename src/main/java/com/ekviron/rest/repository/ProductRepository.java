@@ -0,0 +1,30 @@
+package com.ekviron.rest.repository;
+
+import com.ekviron.rest.model.Product;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * Most ordered product codes, grouped over the catalog index.
+     */
+    @Query("select c.code as label, count(p) as total from Product p join p.catalogProduct c "
+        + "group by c.id, c.code order by count(p) desc, c.code")
+    List<LabelCount> findTopCodes(Pageable pageable);
+
+    /**
+     * Number of orders per number of products, orders without products included, joined over the order_id index.
+     *
+     * @return pairs of products per order and orders, sorted by products per order
+     */
+    @Query(value = "select products, count(*) from (select count(p.id) as products from order_t o "
+        + "left join product_t p on p.order_id = o.id group by o.id) counts group by products order by products",
+        nativeQuery = true)
+    List<Object[]> countOrdersByProductCount();
+
+}
@@ -0,0 +1,63 @@
+package com.ekviron.rest.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Narrows where the read-only transactions of the current thread go, for reads whose results have to agree with each
+ * other or outlive the request. Without replicas every read goes to the primary anyway and this changes nothing.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Pin> PIN = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Runs the reads on the primary, e.g. loads that are cached: a replica within the lag tolerance could still return
+     * the order from before a change whose eviction just happened.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        return run(new Pin(ReplicaRoutingDataSource.PRIMARY), reads);
+    }
+
+    /**
+     * Runs all reads on the source picked for the first of them, so several transactions of one response see the same
+     * state, e.g. the etag of a page and its body.
+     */
+    public static <T> T onOneSource(Supplier<T> reads) {
+        Pin current = PIN.get();
+        return current != null ? reads.get() : run(new Pin(null), reads);
+    }
+
+    static Pin currentPin() {
+        return PIN.get();
+    }
+
+    private static <T> T run(Pin pin, Supplier<T> reads) {
+        Pin previous = PIN.get();
+        PIN.set(pin);
+        try {
+            return reads.get();
+        } finally {
+            if (previous != null) {
+                PIN.set(previous);
+            } else {
+                PIN.remove();
+            }
+        }
+    }
+
+    /**
+     * Lookup key of the source the reads are pinned to, null until the first read picked one.
+     */
+    static final class Pin {
+
+        Object key;
+
+        Pin(Object key) {
+            this.key = key;
+        }
+    }
+
+}
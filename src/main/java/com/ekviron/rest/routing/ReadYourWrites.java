@@ -0,0 +1,66 @@
+package com.ekviron.rest.routing;
+
+import com.ekviron.rest.config.LimitProperties;
+import com.ekviron.rest.limit.ClientKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Clients that committed a write in the last {@code max-lag}, their reads are sent to the primary so they see what
+ * they wrote. Clients are told apart as for the rate limits, by the client header only from trusted proxies.
+ */
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> writers;
+    private final LimitProperties limitProperties;
+
+    public ReadYourWrites(Duration maxLag, LimitProperties limitProperties) {
+        this.writers = Caffeine.newBuilder()
+            .maximumSize(limitProperties.getMaxClients())
+            .expireAfterWrite(maxLag.toNanos(), TimeUnit.NANOSECONDS)
+            .build();
+        this.limitProperties = limitProperties;
+    }
+
+    /**
+     * Whether the client of the current request wrote recently. Work outside of requests has no client.
+     */
+    boolean wroteRecently() {
+        String client = currentClient();
+        return client != null && writers.getIfPresent(client) != null;
+    }
+
+    /**
+     * Remembers the client of the current request as a writer once the current transaction commits.
+     */
+    void recordOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String client = currentClient();
+        if (client != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writers.put(client, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    private String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        return ClientKey.of(((ServletRequestAttributes) attributes).getRequest(), limitProperties);
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.ekviron.rest.routing;
+
+import com.ekviron.rest.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Sends read-only transactions to the replicas within the lag tolerance, round-robin, and everything else to the
+ * primary. A client that wrote recently reads from the primary, see {@link ReadYourWrites}, and {@link ReadRouting}
+ * pins reads to the primary or to one source. The read-only flag is only
+ * set once the transaction has begun, so this has to sit behind a lazy connection proxy that takes the connection at
+ * the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final String[] replicaKeys;
+    private final AtomicInteger next = new AtomicInteger();
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService lagChecker;
+
+    // indexes of the replicas within the lag tolerance
+    private volatile int[] inSync;
+
+    public ReplicaRoutingDataSource(
+        HikariDataSource primary,
+        List<HikariDataSource> replicas,
+        ReadYourWrites readYourWrites,
+        ReplicaProperties properties
+    ) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        this.replicaKeys = new String[replicas.size()];
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = "replica-" + i;
+            targets.put(replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.inSync = IntStream.range(0, replicas.size()).toArray();
+        this.lagQuery = properties.getLagQuery();
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+        if (StringUtils.hasText(lagQuery) && !replicas.isEmpty()) {
+            this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getLagCheckInterval().toMillis();
+            lagChecker.scheduleWithFixedDelay(this::checkLag, 0, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.lagChecker = null;
+        }
+    }
+
+    /**
+     * Replicas currently receiving reads.
+     */
+    public int getReplicasInSync() {
+        return inSync.length;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordOnCommit();
+            return PRIMARY;
+        }
+        ReadRouting.Pin pin = ReadRouting.currentPin();
+        if (pin == null) {
+            return readSource();
+        }
+        if (pin.key == null) {
+            pin.key = readSource();
+        }
+        return pin.key;
+    }
+
+    private Object readSource() {
+        int[] replicasInSync = inSync;
+        if (replicasInSync.length == 0 || readYourWrites.wroteRecently()) {
+            return PRIMARY;
+        }
+        int replica = replicasInSync[Math.floorMod(next.getAndIncrement(), replicasInSync.length)];
+        return replicaKeys[replica];
+    }
+
+    private void checkLag() {
+        int[] checked = IntStream.range(0, replicas.size()).filter(this::withinLag).toArray();
+        if (checked.length != inSync.length) {
+            log.info("{} of {} replicas within the lag tolerance", checked.length, replicas.size());
+        }
+        inSync = checked;
+    }
+
+    private boolean withinLag(int replica) {
+        try (Connection connection = replicas.get(replica).getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return false;
+            }
+            double lag = resultSet.getDouble(1);
+            return !resultSet.wasNull() && lag <= maxLagSeconds;
+        } catch (SQLException e) {
+            log.warn("Lag check of {} failed", replicaKeys[replica], e);
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        // the primary is a bean of its own and closed with it
+        replicas.forEach(HikariDataSource::close);
+    }
+
+}
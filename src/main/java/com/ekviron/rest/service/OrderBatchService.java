@@ -0,0 +1,150 @@
+package com.ekviron.rest.service;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import com.ekviron.rest.cache.OrderCache;
+import com.ekviron.rest.config.OrderBatchProperties;
+import com.ekviron.rest.exception.EntityAlreadyExistException;
+import com.ekviron.rest.exception.ProductNameMismatchException;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.repository.OrderRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class OrderBatchService {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final EntityManager entityManager;
+    private final OrderCache orderCache;
+    private final OrderStatisticsService statistics;
+    private final OrderEventService events;
+    private final OrderBatchProperties properties;
+    private final ProductCatalogService catalog;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderBatchService(
+        OrderRepository orderRepository,
+        OrderService orderService,
+        EntityManager entityManager,
+        OrderCache orderCache,
+        OrderStatisticsService statistics,
+        OrderEventService events,
+        OrderBatchProperties properties,
+        ProductCatalogService catalog,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.entityManager = entityManager;
+        this.orderCache = orderCache;
+        this.statistics = statistics;
+        this.events = events;
+        this.properties = properties;
+        this.catalog = catalog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the chunk in one transaction. Product codes of the whole chunk are resolved at once before it, inserts
+     * are grouped into JDBC batches on flush.
+     *
+     * @return saved order per position, or null if an order with the same seller and customer exists
+     * @throws ProductNameMismatchException if a product name differs from the catalog, take such orders out before
+     */
+    public List<Order> createAll(List<Order> orders) {
+        catalog.resolve(orders.stream()
+            .filter(order -> order.getProducts() != null)
+            .flatMap(order -> order.getProducts().stream())
+            .collect(toList()));
+        try {
+            List<Order> saved = transactionTemplate.execute(status -> insert(orders));
+            // counted after the commit, the fallback counts through OrderService
+            saved.stream().filter(Objects::nonNull).forEach(statistics::recordCreated);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent writer took some pair after the check, fall back to one transaction per order
+            orders.forEach(OrderBatchService::resetIds);
+            return orders.stream().map(this::createOne).collect(toList());
+        }
+    }
+
+    /**
+     * Deletes the orders with one transaction per chunk: the deleted events and the orders, one statement each.
+     * Missing ids are skipped.
+     *
+     * @return number of deleted orders
+     */
+    public int deleteAll(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinct.size(); from += properties.getChunkSize()) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + properties.getChunkSize(), distinct.size()));
+            try {
+                int chunkDeleted = transactionTemplate.execute(status -> {
+                    events.recordDeleted(chunk);
+                    return orderRepository.deleteByIdIn(chunk);
+                });
+                statistics.recordDeleted(chunkDeleted);
+                deleted += chunkDeleted;
+            } finally {
+                chunk.forEach(orderCache::evict);
+            }
+        }
+        return deleted;
+    }
+
+    private List<Order> insert(List<Order> orders) {
+        Set<String> taken = new HashSet<>(orderRepository.findKeysBySellerInAndCustomerIn(
+            orders.stream().map(Order::getSeller).collect(toSet()),
+            orders.stream().map(Order::getCustomer).collect(toSet())
+        ));
+        List<Order> saved = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            // also catches duplicates inside the chunk
+            if (taken.add(key(order))) {
+                Order savedOrder = orderRepository.save(order);
+                events.recordCreated(savedOrder);
+                saved.add(savedOrder);
+            } else {
+                saved.add(null);
+            }
+        }
+        orderRepository.flush();
+        // the chunk is done, keep the persistence context from growing with the batch
+        entityManager.clear();
+        return saved;
+    }
+
+    private Order createOne(Order order) {
+        try {
+            return orderService.create(order);
+        } catch (EntityAlreadyExistException e) {
+            return null;
+        }
+    }
+
+    private static String key(Order order) {
+        return order.getSeller() + ':' + order.getCustomer();
+    }
+
+    private static void resetIds(Order order) {
+        order.setId(null);
+        if (order.getProducts() != null) {
+            order.getProducts().forEach(product -> product.setId(null));
+        }
+    }
+
+}
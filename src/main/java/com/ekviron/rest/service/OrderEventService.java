@@ -0,0 +1,222 @@
+package com.ekviron.rest.service;
+
+import com.ekviron.rest.config.OrderFeedProperties;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.OrderEvent;
+import com.ekviron.rest.repository.OrderEventRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Outbox of order changes and the feed reading it. Events are written by the transaction of the change and get their
+ * feed offset after the commit, every poll interval. Readers get events after an offset; when there are none they
+ * wait, and one query per poll interval serves all waiting readers.
+ */
+@Slf4j
+@Service
+public class OrderEventService {
+
+    private static final int SEQUENCE_BATCH = 1000;
+
+    private final OrderEventRepository eventRepository;
+    private final EntityManager entityManager;
+    private final OrderFeedProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+
+    public OrderEventService(
+        OrderEventRepository eventRepository,
+        EntityManager entityManager,
+        OrderFeedProperties properties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.eventRepository = eventRepository;
+        this.entityManager = entityManager;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long poll = properties.getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, poll, poll, TimeUnit.MILLISECONDS);
+        long purge = Math.max(1, properties.getRetention().toMinutes() / 24);
+        scheduler.scheduleWithFixedDelay(this::purge, purge, purge, TimeUnit.MINUTES);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        entityManager.persist(new OrderEvent(OrderEvent.Type.CREATED, order.getId(), Instant.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(Order order) {
+        entityManager.persist(new OrderEvent(OrderEvent.Type.UPDATED, order.getId(), Instant.now()));
+    }
+
+    /**
+     * Records deletes of the existing orders among the ids, call before deleting them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<Long> orderIds) {
+        eventRepository.insertDeletedEvents(orderIds, Instant.now());
+    }
+
+    /**
+     * Events after the offset, possibly none.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getEvents(long after, int limit) {
+        return eventRepository.findAfter(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Events after the offset, waits up to {@code wait} for the first ones.
+     *
+     * @return the events, empty if the wait ran out
+     */
+    public CompletableFuture<List<OrderEvent>> awaitEvents(long after, int limit, Duration wait) {
+        List<OrderEvent> events = readOnlyTransaction.execute(status -> getEvents(after, limit));
+        if (!events.isEmpty() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(events);
+        }
+        Duration bounded = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        Waiter waiter = new Waiter(after, limit, System.nanoTime() + bounded.toNanos());
+        waiters.add(waiter);
+        return waiter.result;
+    }
+
+    /**
+     * Assigns feed offsets to the committed events without one, in id order after the last assigned offset. Runs
+     * under the lock of the feed head, so an event committed late gets an offset after all those already visible.
+     *
+     * @return number of events sequenced
+     */
+    public int sequence() {
+        int total = 0;
+        int sequenced;
+        do {
+            sequenced = transaction.execute(status -> {
+                long head = eventRepository.lockFeedHead();
+                List<OrderEvent> events = eventRepository.findUnsequenced(PageRequest.of(0, SEQUENCE_BATCH));
+                for (OrderEvent event : events) {
+                    event.setFeedOffset(++head);
+                }
+                if (!events.isEmpty()) {
+                    eventRepository.updateFeedHead(head);
+                }
+                return events.size();
+            });
+            total += sequenced;
+        } while (sequenced == SEQUENCE_BATCH);
+        return total;
+    }
+
+    private void poll() {
+        try {
+            sequence();
+        } catch (RuntimeException e) {
+            log.warn("Order feed sequencing failed", e);
+        }
+        serveWaiters();
+    }
+
+    /**
+     * Serves the waiters from one query after the lowest of their offsets. A waiter beyond a full result waits for
+     * the next poll, the lowest one is always served, so every waiter with events gets them eventually.
+     */
+    private void serveWaiters() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        try {
+            long after = Long.MAX_VALUE;
+            int limit = 0;
+            for (Waiter waiter : waiters) {
+                after = Math.min(after, waiter.after);
+                limit = Math.max(limit, waiter.limit);
+            }
+            long lowest = after;
+            int highest = limit;
+            List<OrderEvent> events = readOnlyTransaction.execute(status -> getEvents(lowest, highest));
+            long now = System.nanoTime();
+            for (Waiter waiter : waiters) {
+                List<OrderEvent> served = eventsAfter(events, waiter.after, waiter.limit);
+                if (!served.isEmpty()) {
+                    waiters.remove(waiter);
+                    waiter.result.complete(served);
+                } else if (now - waiter.deadline >= 0) {
+                    waiters.remove(waiter);
+                    waiter.result.complete(Collections.emptyList());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order feed poll failed", e);
+        }
+    }
+
+    private static List<OrderEvent> eventsAfter(List<OrderEvent> events, long after, int limit) {
+        int from = 0;
+        while (from < events.size() && events.get(from).getFeedOffset() <= after) {
+            from++;
+        }
+        return new ArrayList<>(events.subList(from, Math.min(events.size(), from + limit)));
+    }
+
+    private void purge() {
+        try {
+            Instant before = Instant.now().minus(properties.getRetention());
+            Integer purged = transaction.execute(status -> eventRepository.deleteCreatedBefore(before));
+            log.debug("Purged {} order events", purged);
+        } catch (RuntimeException e) {
+            log.warn("Order event purge failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List<Waiter> pending = new ArrayList<>(waiters);
+        waiters.clear();
+        pending.forEach(waiter -> waiter.result.complete(Collections.emptyList()));
+    }
+
+    private static final class Waiter {
+
+        private final long after;
+        private final int limit;
+        private final long deadline;
+        private final CompletableFuture<List<OrderEvent>> result = new CompletableFuture<>();
+
+        private Waiter(long after, int limit, long deadline) {
+            this.after = after;
+            this.limit = limit;
+            this.deadline = deadline;
+        }
+    }
+
+}
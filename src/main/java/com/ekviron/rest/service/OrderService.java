@@ -1,44 +1,354 @@
 package com.ekviron.rest.service;
 
+import com.ekviron.rest.cache.OrderCache;
 import com.ekviron.rest.exception.EntityAlreadyExistException;
 import com.ekviron.rest.exception.EntityNotFoundException;
+import com.ekviron.rest.exception.EntityVersionMismatchException;
 import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.Product;
+import com.ekviron.rest.repository.OrderId;
 import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.repository.OrderSummary;
+import com.ekviron.rest.repository.OrderVersion;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final OrderCache orderCache;
+    private final OrderStatisticsService statistics;
+    private final OrderEventService events;
+    private final ProductCatalogService catalog;
+    private final TransactionTemplate transactionTemplate;
 
-    public List<Order> getOrders() {
-        return orderRepository.findAll();
+    public OrderService(
+        OrderRepository orderRepository,
+        EntityManager entityManager,
+        OrderCache orderCache,
+        OrderStatisticsService statistics,
+        OrderEventService events,
+        ProductCatalogService catalog,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.orderCache = orderCache;
+        this.statistics = statistics;
+        this.events = events;
+        this.catalog = catalog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    /**
+     * Keyset page of orders with products. Always two selects: ids of the page and orders with products.
+     *
+     * @param after id of the last order of the previous page, 0 for the first page
+     * @param limit max page size
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrders(long after, int limit) {
+        return getOrders(getOrderVersions(after, limit));
+    }
+
+    /**
+     * First half of {@link #getOrders(long, int)}: ids and versions of the page, no products.
+     */
+    @Transactional(readOnly = true)
+    public Slice<OrderVersion> getOrderVersions(long after, int limit) {
+        return orderRepository.findVersionsAfter(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Second half of {@link #getOrders(long, int)}: orders of the page with products.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrders(Slice<OrderVersion> versions) {
+        return withProducts(versions.map(OrderVersion::getId));
+    }
+
+    /**
+     * Keyset page of orders of the seller, same contract as {@link #getOrders(long, int)}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersBySeller(String seller, long after, int limit) {
+        return withProducts(
+            orderRepository.findBySellerAndIdGreaterThan(seller, after, byId(limit)).map(OrderId::getId));
+    }
+
+    /**
+     * Keyset page of orders of the customer, same contract as {@link #getOrders(long, int)}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersByCustomer(String customer, long after, int limit) {
+        return withProducts(
+            orderRepository.findByCustomerAndIdGreaterThan(customer, after, byId(limit)).map(OrderId::getId));
+    }
+
+    /**
+     * Passes every order to the consumer one by one. Each order is detached after consuming, so the persistence
+     * context doesn't grow with the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(Consumer<Order> consumer) {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            orders.forEach(order -> {
+                consumer.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    /**
+     * Keyset page of orders without products, see {@link #getOrders(long, int)}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<OrderSummary> getOrderSummaries(long after, int limit) {
+        return orderRepository.findSummariesAfter(after, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSummary findSummaryById(Long id) {
+        return orderRepository.findSummaryById(id)
+            .orElseThrow(() -> new EntityNotFoundException(Order.class, "id", id.toString()));
+    }
+
+    /**
+     * Version of the order without loading it.
+     */
+    @Transactional(readOnly = true)
+    public Long findVersion(Long id) {
+        return orderRepository.findVersionById(id)
+            .orElseThrow(() -> new EntityNotFoundException(Order.class, "id", id.toString()));
+    }
+
+    @Transactional(readOnly = true)
     public Order findById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithProductsById(id)
             .orElseThrow(() -> new EntityNotFoundException(Order.class, "id", id.toString()));
     }
 
+    /**
+     * Inserts the order and its created event in one transaction. Product codes are resolved to catalog entries before
+     * it, see {@link ProductCatalogService#resolve}.
+     */
     public Order create(Order order) {
+        catalog.resolve(order.getProducts());
+        return transactionTemplate.execute(status -> insert(order));
+    }
+
+    /**
+     * Applies the changes to the order. Products are matched to the existing ones by id, then by code: matched rows
+     * are updated only if their code differs, the rest are inserted or deleted. Names of known codes must be the ones
+     * of the catalog, see {@link ProductCatalogService#resolve}. Nothing is written when nothing differs.
+     *
+     * @param expectedVersion version the client read, null to update whatever version is stored
+     * @param changes seller, customer and products to set, null ones are kept
+     */
+    public Order update(Long id, Long expectedVersion, Order changes) {
+        // codes are resolved before the transaction, like on create
+        catalog.resolve(changes.getProducts());
+        return transactionTemplate.execute(status -> applyChanges(id, expectedVersion, changes));
+    }
+
+    /**
+     * The deleted event and one delete statement, no select of the order or its products.
+     */
+    @Transactional
+    public void delete(Long id) {
+        evictAfterCommit(id);
+        events.recordDeleted(Collections.singleton(id));
+        int deleted = orderRepository.deleteByIdIn(Collections.singleton(id));
+        statistics.recordDeleted(deleted);
+        if (deleted == 0) {
+            // maybe idempotent?
+            throw new EntityNotFoundException(Order.class, "id", id.toString());
+        }
+    }
+
+    private Order insert(Order order) {
+        Order savedOrder;
         try {
-            return orderRepository.save(order);
+            // flushed here, a duplicate fails inside the try and not at commit
+            savedOrder = orderRepository.saveAndFlush(order);
         } catch (DataIntegrityViolationException e) {
             throw new EntityAlreadyExistException(Order.class);
         }
+        events.recordCreated(savedOrder);
+        evictAfterCommit(savedOrder.getId());
+        statistics.recordCreated(savedOrder);
+        return savedOrder;
     }
 
-    public void delete(Long id) {
+    private Order applyChanges(Long id, Long expectedVersion, Order changes) {
+        Order order = findById(id);
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new EntityVersionMismatchException(Order.class, id);
+        }
+        boolean orderChanged = false;
+        if (changes.getSeller() != null && !changes.getSeller().equals(order.getSeller())) {
+            order.setSeller(changes.getSeller());
+            orderChanged = true;
+        }
+        if (changes.getCustomer() != null && !changes.getCustomer().equals(order.getCustomer())) {
+            order.setCustomer(changes.getCustomer());
+            orderChanged = true;
+        }
+        ProductChanges productChanges = changes.getProducts() != null
+            ? mergeProducts(order, changes.getProducts())
+            : ProductChanges.NONE;
+        if (!orderChanged && productChanges.isEmpty()) {
+            return order;
+        }
+        evictAfterCommit(id);
         try {
-            orderRepository.deleteById(id);
-        } catch (EmptyResultDataAccessException e) {
-            // maybe idempotent?
-            throw new EntityNotFoundException(Order.class, "id", id.toString());
+            if (!orderChanged && productChanges.updatedOnly()) {
+                // rows changed in place don't make the order dirty, its version is raised here with the usual check
+                entityManager.lock(order, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            }
+            // flushed here, a taken seller and customer or a concurrent update fail inside the try
+            orderRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityAlreadyExistException(Order.class);
+        } catch (OptimisticLockingFailureException | javax.persistence.OptimisticLockException e) {
+            throw new EntityVersionMismatchException(Order.class, id);
+        }
+        events.recordUpdated(order);
+        statistics.recordUpdated();
+        return order;
+    }
+
+    /**
+     * Evicts the order once the transaction is committed. Evicted before, a read missing the cache in between would
+     * load the row as it was before the commit and cache it until the ttl. A load running at the commit is waited for
+     * by the caffeine cache.
+     */
+    private void evictAfterCommit(Long id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderCache.evict(id);
+            }
+        });
+    }
+
+    /**
+     * Changes the loaded products in place instead of replacing the collection, so only differing rows are written.
+     */
+    private static ProductChanges mergeProducts(Order order, List<Product> incoming) {
+        List<Product> current = order.getProducts();
+        Map<Long, Product> byId = new HashMap<>();
+        Map<String, Deque<Product>> byCode = new HashMap<>();
+        for (Product product : current) {
+            byId.put(product.getId(), product);
+            byCode.computeIfAbsent(product.getCode(), code -> new ArrayDeque<>()).add(product);
+        }
+        Map<Product, Product> matches = new IdentityHashMap<>();
+        List<Product> unmatched = new ArrayList<>();
+        for (Product product : incoming) {
+            Product existing = product.getId() != null ? byId.remove(product.getId()) : null;
+            if (existing != null) {
+                matches.put(existing, product);
+                byCode.get(existing.getCode()).remove(existing);
+            } else {
+                unmatched.add(product);
+            }
+        }
+        List<Product> added = new ArrayList<>();
+        for (Product product : unmatched) {
+            Deque<Product> sameCode = byCode.get(product.getCode());
+            Product existing = sameCode != null ? sameCode.poll() : null;
+            if (existing != null) {
+                byId.remove(existing.getId());
+                matches.put(existing, product);
+            } else {
+                added.add(product);
+            }
+        }
+        int updated = 0;
+        for (Map.Entry<Product, Product> match : matches.entrySet()) {
+            Product existing = match.getKey();
+            Product product = match.getValue();
+            // names belong to the catalog, a product differs by the entry it points at
+            if (!Objects.equals(existing.getCatalogProduct().getId(), product.getCatalogProduct().getId())) {
+                existing.setCatalogProduct(product.getCatalogProduct());
+                updated++;
+            }
+        }
+        // left in byId are the products that were not matched, orphan removal deletes them
+        int removed = byId.size();
+        if (removed > 0) {
+            current.removeIf(product -> !matches.containsKey(product));
+        }
+        for (Product product : added) {
+            Product created = new Product();
+            created.setCatalogProduct(product.getCatalogProduct());
+            created.setOrder(order);
+            current.add(created);
+        }
+        return new ProductChanges(added.size(), updated, removed);
+    }
+
+    private Slice<Order> withProducts(Slice<Long> ids) {
+        List<Order> orders = ids.hasContent()
+            ? orderRepository.findAllWithProductsByIdIn(ids.getContent())
+            : Collections.emptyList();
+        return new SliceImpl<>(orders, ids.getPageable(), ids.hasNext());
+    }
+
+    private static Pageable byId(int limit) {
+        return PageRequest.of(0, limit, Sort.by("id"));
+    }
+
+    private static final class ProductChanges {
+
+        private static final ProductChanges NONE = new ProductChanges(0, 0, 0);
+
+        private final int added;
+        private final int updated;
+        private final int removed;
+
+        private ProductChanges(int added, int updated, int removed) {
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        private boolean isEmpty() {
+            return added == 0 && updated == 0 && removed == 0;
+        }
+
+        /**
+         * Only rows changed in place, the product collection itself is unchanged.
+         */
+        private boolean updatedOnly() {
+            return added == 0 && removed == 0 && updated > 0;
         }
     }
 
@@ -0,0 +1,18 @@
+package com.ekviron.rest.service;
+
+import java.util.Map;
+import lombok.Value;
+
+@Value
+public class OrderStatistics {
+
+    long orders;
+    long products;
+    Map<String, Long> topSellers;
+    Map<String, Long> topProductCodes;
+    Map<Integer, Long> ordersByProductCount;
+    long ordersCreated;
+    long productsCreated;
+    long ordersDeleted;
+
+}
@@ -0,0 +1,140 @@
+package com.ekviron.rest.service;
+
+import com.ekviron.rest.config.OrderStatsProperties;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.repository.LabelCount;
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.repository.ProductRepository;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Order statistics: totals and top lists computed with grouped queries over the indexes, and counters of this node's
+ * committed writes since start. The writes are counted with striped adders so concurrent creates don't contend on
+ * them, and their sum tells whether the last computed statistics are still current.
+ */
+@Service
+public class OrderStatisticsService {
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final OrderStatsProperties properties;
+
+    private final LongAdder ordersCreated = new LongAdder();
+    private final LongAdder productsCreated = new LongAdder();
+    private final LongAdder ordersDeleted = new LongAdder();
+    // not reported, only tells that the last statistics are outdated
+    private final LongAdder ordersUpdated = new LongAdder();
+
+    private volatile Snapshot snapshot;
+
+    public OrderStatisticsService(
+        OrderRepository orderRepository,
+        ProductRepository productRepository,
+        OrderStatsProperties properties
+    ) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.properties = properties;
+    }
+
+    public void recordCreated(Order order) {
+        int products = order.getProducts() != null ? order.getProducts().size() : 0;
+        afterCommit(() -> {
+            ordersCreated.increment();
+            productsCreated.add(products);
+        });
+    }
+
+    public void recordDeleted(int orders) {
+        afterCommit(() -> ordersDeleted.add(orders));
+    }
+
+    public void recordUpdated() {
+        afterCommit(ordersUpdated::increment);
+    }
+
+    /**
+     * Counts a write once it is committed, right away outside of a transaction. Counted before, statistics computed
+     * between the count and the commit would miss the write and still be taken as current.
+     */
+    private static void afterCommit(Runnable count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                count.run();
+            }
+        });
+    }
+
+    /**
+     * @param top size of the top sellers and product codes lists
+     */
+    @Transactional(readOnly = true)
+    public OrderStatistics getStatistics(int top) {
+        long writes = writes();
+        long now = System.nanoTime();
+        Snapshot current = snapshot;
+        if (current != null && current.top == top && current.writes == writes
+            && now - current.computedAt < properties.getMaxAge().toNanos()) {
+            return current.statistics;
+        }
+        OrderStatistics statistics = compute(top);
+        snapshot = new Snapshot(top, writes, now, statistics);
+        return statistics;
+    }
+
+    private OrderStatistics compute(int top) {
+        Map<Integer, Long> ordersByProductCount = new LinkedHashMap<>();
+        for (Object[] row : productRepository.countOrdersByProductCount()) {
+            ordersByProductCount.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        return new OrderStatistics(
+            orderRepository.count(),
+            productRepository.count(),
+            toMap(orderRepository.findTopSellers(PageRequest.of(0, top))),
+            toMap(productRepository.findTopCodes(PageRequest.of(0, top))),
+            ordersByProductCount,
+            ordersCreated.sum(),
+            productsCreated.sum(),
+            ordersDeleted.sum()
+        );
+    }
+
+    private long writes() {
+        return ordersCreated.sum() + ordersDeleted.sum() + ordersUpdated.sum();
+    }
+
+    private static Map<String, Long> toMap(List<LabelCount> counts) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        counts.forEach(count -> map.put(count.getLabel(), count.getTotal()));
+        return map;
+    }
+
+    private static final class Snapshot {
+
+        private final int top;
+        private final long writes;
+        private final long computedAt;
+        private final OrderStatistics statistics;
+
+        private Snapshot(int top, long writes, long computedAt, OrderStatistics statistics) {
+            this.top = top;
+            this.writes = writes;
+            this.computedAt = computedAt;
+            this.statistics = statistics;
+        }
+    }
+
+}
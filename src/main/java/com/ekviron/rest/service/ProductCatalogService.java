@@ -0,0 +1,134 @@
+package com.ekviron.rest.service;
+
+import com.ekviron.rest.config.ProductCatalogProperties;
+import com.ekviron.rest.exception.ProductNameMismatchException;
+import com.ekviron.rest.model.CatalogProduct;
+import com.ekviron.rest.model.Product;
+import com.ekviron.rest.repository.CatalogProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Resolves product codes to catalog entries in bulk: known codes from memory, the rest with one select, and codes new
+ * to the catalog are inserted as one batch. Call it before the transaction of the orders, so a code inserted
+ * concurrently fails the catalog insert only and not the orders. A name other than the one in the catalog is
+ * rejected, catalog entries are never renamed by an order.
+ */
+@Service
+public class ProductCatalogService {
+
+    private final CatalogProductRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, CatalogProduct> cache;
+
+    public ProductCatalogService(
+        CatalogProductRepository repository,
+        ProductCatalogProperties properties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // never joins a running transaction, a failed insert would mark it rollback-only
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // entries are immutable and never deleted, nothing to expire
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getCacheSize())
+            .build();
+    }
+
+    /**
+     * Points every product at the catalog entry of its code. Codes new to the catalog are saved with the first name
+     * they come with. No statement is run when all codes are cached.
+     *
+     * @throws ProductNameMismatchException if a product comes with another name than the catalog entry of its code
+     */
+    public void resolve(Collection<Product> products) {
+        Map<Product, String> renamed = resolveAll(products);
+        if (!renamed.isEmpty()) {
+            Map.Entry<Product, String> first = renamed.entrySet().iterator().next();
+            Product product = first.getKey();
+            throw new ProductNameMismatchException(product.getCode(), first.getValue(), product.getName());
+        }
+    }
+
+    /**
+     * Like {@link #resolve}, for callers that reject orders one by one: every product points at its entry afterwards.
+     *
+     * @return name each product came with, for the products whose name differs from the catalog entry
+     */
+    public Map<Product, String> resolveAll(Collection<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, CatalogProduct> resolved = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (Product product : products) {
+            String code = product.getCode();
+            if (!resolved.containsKey(code) && !missing.containsKey(code)) {
+                CatalogProduct cached = cache.getIfPresent(code);
+                if (cached != null) {
+                    resolved.put(code, cached);
+                } else {
+                    missing.put(code, product.getName());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, CatalogProduct> loaded = loadOrInsert(missing);
+            cache.putAll(loaded);
+            resolved.putAll(loaded);
+        }
+        Map<Product, String> renamed = new LinkedHashMap<>();
+        for (Product product : products) {
+            CatalogProduct entry = resolved.get(product.getCode());
+            String name = product.getName();
+            if (name != null && !name.equals(entry.getName())) {
+                renamed.put(product, name);
+            }
+            product.setCatalogProduct(entry);
+        }
+        return renamed;
+    }
+
+    private Map<String, CatalogProduct> loadOrInsert(Map<String, String> namesByCode) {
+        try {
+            return transactionTemplate.execute(status -> findOrInsert(namesByCode));
+        } catch (DataIntegrityViolationException e) {
+            // another node inserted one of the codes after the select, it is found this time
+            return transactionTemplate.execute(status -> findOrInsert(namesByCode));
+        }
+    }
+
+    private Map<String, CatalogProduct> findOrInsert(Map<String, String> namesByCode) {
+        Map<String, CatalogProduct> found = new HashMap<>();
+        for (CatalogProduct product : repository.findByCodeIn(namesByCode.keySet())) {
+            found.put(product.getCode(), product);
+        }
+        List<CatalogProduct> inserted = new ArrayList<>();
+        namesByCode.forEach((code, name) -> {
+            if (!found.containsKey(code)) {
+                inserted.add(new CatalogProduct(code, name));
+            }
+        });
+        if (!inserted.isEmpty()) {
+            repository.saveAll(inserted);
+            // flushed here, a taken code fails inside the transaction and is retried
+            repository.flush();
+            inserted.forEach(product -> found.put(product.getCode(), product));
+        }
+        return found;
+    }
+
+}
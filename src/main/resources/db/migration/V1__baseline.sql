@@ -0,0 +1,28 @@
+-- Schema of the mapping before migrations were introduced, for new databases. Databases Hibernate created then are
+-- baselined at this version instead of running it. There the unique key and the foreign key carry the UK and FK
+-- names Hibernate generated, not order_seller_customer_uk and product_order_fk, so later migrations can't rely on
+-- those two names.
+
+create sequence product_seq start with 1 increment by 50;
+
+create table order_t (
+    id       bigint generated by default as identity,
+    seller   varchar(9),
+    customer varchar(9),
+    primary key (id)
+);
+
+alter table order_t add constraint order_seller_customer_uk unique (seller, customer);
+create index order_seller_id_idx on order_t (seller, id);
+create index order_customer_id_idx on order_t (customer, id);
+
+create table product_t (
+    id       bigint not null,
+    name     varchar(255),
+    code     varchar(13),
+    order_id bigint,
+    primary key (id)
+);
+
+alter table product_t add constraint product_order_fk foreign key (order_id) references order_t;
+create index product_code_idx on product_t (code);
@@ -0,0 +1 @@
+alter table order_t add column version bigint default 0 not null;
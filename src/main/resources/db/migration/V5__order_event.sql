@@ -0,0 +1,12 @@
+-- outbox of order changes, written in the transaction of the change and read by the feed in feed offset order, see V7
+create sequence order_event_seq start with 1 increment by 1;
+
+create table order_event (
+    id         bigint      not null,
+    type       varchar(16) not null,
+    order_id   bigint      not null,
+    created_at timestamp   not null,
+    primary key (id)
+);
+
+create index order_event_created_at_idx on order_event (created_at);
@@ -0,0 +1,15 @@
+-- feed offsets are assigned after the commit by one sequencer at a time, in the order events become visible, so a
+-- transaction committing late can't put an event behind an offset already read. Existing events keep their id
+-- as offset, they are all committed
+alter table order_event add column feed_offset bigint;
+update order_event set feed_offset = id;
+create unique index order_event_feed_offset_uk on order_event (feed_offset);
+
+-- single row with the last assigned offset, locked by the sequencer
+create table order_feed_head (
+    id          int    not null,
+    feed_offset bigint not null,
+    primary key (id)
+);
+
+insert into order_feed_head (id, feed_offset) select 1, coalesce(max(id), 0) from order_event;
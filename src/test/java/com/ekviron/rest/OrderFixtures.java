@@ -0,0 +1,53 @@
+package com.ekviron.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Orders and requests shared by the MockMvc tests. Catalog names are kept across tests in the shared database, so
+ * every code is always sent with the same name: 1234567890123 milk, 1234567890124 bread.
+ */
+public final class OrderFixtures {
+
+    public static final String ORDER = "{\"seller\":\"123456789\",\"customer\":\"987654321\","
+        + "\"products\":[{\"name\":\"milk\",\"code\":\"1234567890123\"}]}";
+
+    /**
+     * {@link #ORDER} with bread added.
+     */
+    public static final String ORDER_WITH_TWO_PRODUCTS = "{\"seller\":\"123456789\",\"customer\":\"987654321\","
+        + "\"products\":[{\"name\":\"milk\",\"code\":\"1234567890123\"},"
+        + "{\"name\":\"bread\",\"code\":\"1234567890124\"}]}";
+
+    private OrderFixtures() {
+    }
+
+    public static MockHttpServletRequestBuilder postOrder(String order) {
+        return post("/api/v1/orders").contentType(MediaType.APPLICATION_JSON).content(order);
+    }
+
+    /**
+     * Performs the request and expects the order to be created.
+     */
+    public static MvcResult createOrder(MockMvc mvc, MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    public static MvcResult createOrder(MockMvc mvc, String order) throws Exception {
+        return createOrder(mvc, postOrder(order));
+    }
+
+    /**
+     * Id of the order in the response body.
+     */
+    public static Long id(MvcResult result) throws Exception {
+        return JsonPath.parse(result.getResponse().getContentAsString()).read("$.id", Long.class);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.ekviron.rest;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.id;
+import static com.ekviron.rest.OrderFixtures.postOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Smoke test of the perf profile: lazy beans, the tuned persistence settings and handlers offloaded to the pool.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("perf")
+class PerfProfileTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void createsAndReadsOrder() throws Exception {
+        MvcResult created = mvc.perform(postOrder(ORDER))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        Long id = id(mvc.perform(asyncDispatch(created))
+            .andExpect(status().isOk())
+            .andReturn());
+
+        MvcResult read = mvc.perform(get("/api/v1/orders/{id}", id))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(read))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.seller").value("123456789"))
+            .andExpect(jsonPath("$.products[0].code").value("1234567890123"));
+    }
+
+}
@@ -20,7 +20,6 @@ class RestApplicationTests {
 
     @Test
     void contextLoads() {
-        server.expect(requestTo)
     }
 
 }
@@ -0,0 +1,106 @@
+package com.ekviron.rest.cache;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "ekviron.orders.cache.type=shared")
+@AutoConfigureMockMvc
+class OrderCacheTests {
+
+    @TestConfiguration
+    static class SharedCacheConfig {
+
+        @Bean
+        OrderCache sharedOrderCache(ObjectMapper objectMapper) {
+            return new SharedOrderCacheStandIn(objectMapper);
+        }
+
+    }
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderCache orderCache;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedLookupIsServedFromCache() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+        OrderCacheStats before = orderCache.stats();
+
+        mvc.perform(get("/api/v1/orders/{id}", id)).andExpect(status().isOk());
+        mvc.perform(get("/api/v1/orders/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.seller").value("123456789"));
+
+        OrderCacheStats after = orderCache.stats();
+        assertThat(after.getMisses() - before.getMisses()).isEqualTo(1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteEvictsCachedOrder() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+        mvc.perform(get("/api/v1/orders/{id}", id)).andExpect(status().isOk());
+
+        mvc.perform(delete("/api/v1/orders/{id}", id)).andExpect(status().isOk());
+
+        mvc.perform(get("/api/v1/orders/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void orderReadBeforeCommitIsNotServedAfterIt() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            orderService.delete(id);
+            // another request misses the cache and caches the order as committed so far
+            CompletableFuture.runAsync(() -> {
+                try {
+                    mvc.perform(get("/api/v1/orders/{id}", id)).andExpect(status().isOk());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).join();
+            return null;
+        });
+
+        mvc.perform(get("/api/v1/orders/{id}", id)).andExpect(status().isNotFound());
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ekviron.rest.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two nodes on one loopback transport.
+ */
+class OrderInvalidationBusTests {
+
+    private static final Duration MAX_LAG = Duration.ofMillis(20);
+
+    private final List<OrderInvalidation> sent = new CopyOnWriteArrayList<>();
+    private OrderInvalidationBus busA;
+    private OrderInvalidationBus busB;
+    private OrderCache nodeA;
+    private OrderCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+        transport.subscribe(sent::add);
+        busA = new OrderInvalidationBus(transport, 100, MAX_LAG);
+        busB = new OrderInvalidationBus(transport, 100, MAX_LAG);
+        nodeA = new InvalidatingOrderCache(new CaffeineOrderCache(1000, Duration.ofMinutes(10)), busA);
+        nodeB = new InvalidatingOrderCache(new CaffeineOrderCache(1000, Duration.ofMinutes(10)), busB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    void evictReachesOtherNode() throws InterruptedException {
+        nodeA.get(1L, OrderInvalidationBusTests::order);
+        nodeB.get(1L, OrderInvalidationBusTests::order);
+        nodeB.get(2L, OrderInvalidationBusTests::order);
+
+        nodeA.evict(1L);
+
+        assertThat(nodeA.getIfPresent(1L)).isNull();
+        awaitTrue(() -> nodeB.getIfPresent(1L) == null);
+        assertThat(nodeB.getIfPresent(2L)).isNotNull();
+    }
+
+    @Test
+    void evictsAreSentInBatches() throws InterruptedException {
+        for (long id = 0; id < 250; id++) {
+            nodeB.get(id, OrderInvalidationBusTests::order);
+        }
+
+        for (long id = 0; id < 250; id++) {
+            nodeA.evict(id);
+        }
+
+        awaitTrue(() -> busB.getReceivedIds() == 250);
+        assertThat(busA.getSentBatches()).isBetween(3L, 10L);
+        assertThat(nodeB.getIfPresent(0L)).isNull();
+        assertThat(nodeB.getIfPresent(249L)).isNull();
+    }
+
+    @Test
+    void ownEvictsAreNotReceived() throws InterruptedException {
+        nodeA.evict(1L);
+
+        awaitTrue(() -> busB.getReceivedIds() == 1);
+        assertThat(sent).hasSize(1);
+        assertThat(busA.getReceivedIds()).isZero();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("deadline").isLessThan(deadline);
+            Thread.sleep(MAX_LAG.toMillis());
+        }
+    }
+
+    private static OrderDto order(Long id) {
+        OrderDto order = new OrderDto();
+        order.setId(id);
+        return order;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.ekviron.rest.cache;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for a cache shared between nodes. Values are kept serialized, like a remote store would, so callers
+ * never share instances.
+ */
+class SharedOrderCacheStandIn implements OrderCache {
+
+    private final Map<Long, byte[]> store = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    SharedOrderCacheStandIn(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public OrderDto get(Long id, Function<Long, OrderDto> loader) {
+        byte[] value = store.get(id);
+        if (value != null) {
+            hits.increment();
+            return read(value);
+        }
+        misses.increment();
+        OrderDto order = loader.apply(id);
+        store.put(id, write(order));
+        return order;
+    }
+
+    @Override
+    public OrderDto getIfPresent(Long id) {
+        byte[] value = store.get(id);
+        return value != null ? read(value) : null;
+    }
+
+    @Override
+    public void evict(Long id) {
+        store.remove(id);
+        invalidations.increment();
+    }
+
+    @Override
+    public OrderCacheStats stats() {
+        return new OrderCacheStats(hits.sum(), misses.sum(), 0, invalidations.sum());
+    }
+
+    private OrderDto read(byte[] value) {
+        try {
+            return objectMapper.readValue(value, OrderDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(OrderDto order) {
+        try {
+            return objectMapper.writeValueAsBytes(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.ekviron.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.config.LimitProperties;
+import com.ekviron.rest.config.OrderIdempotencyProperties;
+import com.ekviron.rest.exception.IdempotencyKeyInProgressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrent requests with one key, outside of a servlet request all share one client.
+ */
+class IdempotencyKeyStoreTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void concurrentRequestsRunOneCreation() throws Exception {
+        IdempotencyKeyStore store = store(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger creations = new AtomicInteger();
+        OrderDto order = order();
+
+        CompletableFuture<OrderDto> first = CompletableFuture.supplyAsync(() -> store.create("key", order, () -> {
+            creations.incrementAndGet();
+            started.countDown();
+            await(finish);
+            return created(42L);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<OrderDto> second = CompletableFuture.supplyAsync(() ->
+            store.create("key", order(), () -> created(creations.incrementAndGet())));
+        finish.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(42L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(42L);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void waitForCreationInProgressIsBounded() throws Exception {
+        IdempotencyKeyStore store = store(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        CompletableFuture<OrderDto> first = CompletableFuture.supplyAsync(() -> store.create("key", order(), () -> {
+            started.countDown();
+            await(finish);
+            return created(42L);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> store.create("key", order(), () -> created(43L)))
+            .isInstanceOf(IdempotencyKeyInProgressException.class);
+        finish.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(42L);
+        assertThat(store.create("key", order(), () -> created(43L)).getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void keysInProgressOutlastSizeLimit() throws Exception {
+        IdempotencyKeyStore store = store(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger creations = new AtomicInteger();
+
+        CompletableFuture<OrderDto> first = CompletableFuture.supplyAsync(() -> store.create("key", order(), () -> {
+            creations.incrementAndGet();
+            started.countDown();
+            await(finish);
+            return created(42L);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        // fill the store beyond its size of 1 with completed keys
+        for (int i = 0; i < 10; i++) {
+            store.create("other " + i, order(), () -> created(0L));
+        }
+        CompletableFuture<OrderDto> second = CompletableFuture.supplyAsync(() ->
+            store.create("key", order(), () -> created(creations.incrementAndGet())));
+        finish.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(42L);
+        assertThat(creations).hasValue(1);
+    }
+
+    private IdempotencyKeyStore store(Duration wait) {
+        OrderIdempotencyProperties properties = new OrderIdempotencyProperties();
+        properties.setMaxSize(1);
+        properties.setWait(wait);
+        return new IdempotencyKeyStore(properties, objectMapper, new LimitProperties());
+    }
+
+    private static OrderDto order() {
+        OrderDto order = new OrderDto();
+        order.setSeller("123456789");
+        order.setCustomer("987654321");
+        return order;
+    }
+
+    private static OrderDto created(long id) {
+        OrderDto order = order();
+        order.setId(id);
+        return order;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Bulk creation with chunks of two, so orders of one request span several chunks and transactions. Every order gets
+ * its result at its position, whatever happens to the others.
+ */
+@SpringBootTest(properties = "ekviron.orders.batch.chunk-size=2")
+@AutoConfigureMockMvc
+class OrderBatchTests {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    MockMvc mvc;
+
+    @SpyBean
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void validOrdersAreCreatedAndOthersReported() throws Exception {
+        createOrder(mvc, ORDER);
+
+        batch(MediaType.APPLICATION_JSON_VALUE, "[" + String.join(",",
+            order("000000001"),
+            ORDER.replace("123456789", "123"),
+            ORDER,
+            order("000000002"),
+            order("000000003").replace("milk", "renamed")
+        ) + "]")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.duplicates").value(1))
+            .andExpect(jsonPath("$.invalid").value(2))
+            .andExpect(jsonPath("$.items[*].index").value(contains(0, 1, 2, 3, 4)))
+            .andExpect(jsonPath("$.items[*].result").value(contains(
+                "CREATED", "INVALID", "DUPLICATE", "CREATED", "INVALID")))
+            .andExpect(jsonPath("$.items[0].id").isNumber())
+            .andExpect(jsonPath("$.items[1].failure.error.status").value("BAD_REQUEST"))
+            .andExpect(jsonPath("$.items[2].failure.error.status").value("CONFLICT"))
+            .andExpect(jsonPath("$.items[4].failure.error.status").value("UNPROCESSABLE_ENTITY"));
+
+        assertThat(orderRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void duplicateInsideChunkIsReported() throws Exception {
+        batch(MediaType.APPLICATION_JSON_VALUE, "[" + order("000000001") + "," + order("000000001") + "]")
+            .andExpect(jsonPath("$.items[*].result").value(contains("CREATED", "DUPLICATE")));
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void chunkFallsBackToOneTransactionPerOrderOnMissedDuplicate() throws Exception {
+        createOrder(mvc, ORDER);
+        // as if a concurrent writer took the pair after the check
+        doReturn(Collections.emptyList()).when(orderRepository).findKeysBySellerInAndCustomerIn(any(), any());
+
+        batch(MediaType.APPLICATION_JSON_VALUE, "[" + order("000000001") + "," + ORDER + "]")
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.duplicates").value(1))
+            .andExpect(jsonPath("$.items[*].result").value(contains("CREATED", "DUPLICATE")));
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void ndjsonIsReadLineByLine() throws Exception {
+        batch(NDJSON, order("000000001") + "\n" + order("000000002") + "\n\n" + order("000000003") + "\n")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(3))
+            .andExpect(jsonPath("$.items[*].index").value(contains(0, 1, 2)));
+
+        assertThat(orderRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void readingStopsAtMalformedOrder() throws Exception {
+        batch(NDJSON, order("000000001") + "\n{\"seller\":\n" + order("000000002") + "\n")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.invalid").value(1))
+            .andExpect(jsonPath("$.items[*].result").value(contains("CREATED", "INVALID")))
+            .andExpect(jsonPath("$.items[1].failure.error.message").value("Malformed JSON request"));
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    private ResultActions batch(String contentType, String body) throws Exception {
+        return mvc.perform(post("/api/v1/orders:batch").contentType(contentType).content(body));
+    }
+
+    /**
+     * {@link com.ekviron.rest.OrderFixtures#ORDER} of another customer.
+     */
+    private static String order(String customer) {
+        return ORDER.replace("987654321", customer);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Orders are written and read as CBOR, with the same weak entity tags as JSON.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderCborTests {
+
+    private static final String CBOR = "application/cbor";
+
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void orderIsCreatedPatchedAndReadAsCbor() throws Exception {
+        byte[] body = cbor.writeValueAsBytes(objectMapper.readTree(ORDER));
+        MvcResult created = mvc.perform(post("/api/v1/orders").contentType(CBOR).accept(CBOR).content(body))
+            .andExpect(status().isOk())
+            .andReturn();
+        OrderDto order = cbor.readValue(created.getResponse().getContentAsByteArray(), OrderDto.class);
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(CBOR)
+            .content(cbor.writeValueAsBytes(objectMapper.readTree("{\"customer\":\"111111111\"}"))))
+            .andExpect(status().isOk());
+
+        MvcResult read = mvc.perform(get("/api/v1/orders/{id}", order.getId()).accept(CBOR))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.VARY, "Accept"))
+            .andReturn();
+        JsonNode stored = cbor.readTree(read.getResponse().getContentAsByteArray());
+        assertThat(stored.get("customer").asText()).isEqualTo("111111111");
+        assertThat(read.getResponse().getHeader(HttpHeaders.ETAG)).startsWith("W/\"");
+    }
+
+    @Test
+    void jsonTagMatchesCborBody() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER);
+        OrderDto order = objectMapper.readValue(created.getResponse().getContentAsString(), OrderDto.class);
+        String etag = mvc.perform(get("/api/v1/orders/{id}", order.getId()))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/v1/orders/{id}", order.getId()).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.VARY, "Accept"));
+    }
+
+}
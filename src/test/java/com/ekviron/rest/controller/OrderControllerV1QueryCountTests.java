@@ -0,0 +1,222 @@
+package com.ekviron.rest.controller;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.model.CatalogProduct;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.Product;
+import com.ekviron.rest.repository.CatalogProductRepository;
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.service.ProductCatalogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Checks that order reads, updates and deletes run a fixed number of statements regardless of how many orders and
+ * products there are.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class OrderControllerV1QueryCountTests {
+
+    private static final int PRODUCTS_PER_ORDER = 3;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    CatalogProductRepository catalogProductRepository;
+
+    @Autowired
+    ProductCatalogService catalog;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getOrdersRunsIdsAndFetchSelects(int orderCount) throws Exception {
+        saveOrders(orderCount);
+        statistics.clear();
+
+        mvc.perform(get("/api/v1/orders").param("limit", "1000"))
+            .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getOrderSummariesRunsOneSelect(int orderCount) throws Exception {
+        saveOrders(orderCount);
+        statistics.clear();
+
+        mvc.perform(get("/api/v1/orders").param("limit", "1000").param("view", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders[0].seller").exists())
+            .andExpect(jsonPath("$.orders[0].products").doesNotExist());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getOrderByIdRunsOneSelect(int orderCount) throws Exception {
+        List<Order> orders = saveOrders(orderCount);
+        statistics.clear();
+
+        mvc.perform(get("/api/v1/orders/{id}", orders.get(orders.size() - 1).getId()))
+            .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void streamOrdersRunsOneSelect(int orderCount) throws Exception {
+        saveOrders(orderCount);
+        statistics.clear();
+
+        MvcResult result = mvc.perform(get("/api/v1/orders:stream"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void deleteOrderRunsEventInsertAndOneDelete(int orderCount) throws Exception {
+        List<Order> orders = saveOrders(orderCount);
+        statistics.clear();
+
+        mvc.perform(delete("/api/v1/orders/{id}", orders.get(orders.size() - 1).getId()))
+            .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(orderRepository.count()).isEqualTo(orderCount - 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void deleteOrdersRunsEventInsertAndOneDeletePerChunk(int orderCount) throws Exception {
+        List<Long> ids = saveOrders(orderCount).stream().map(Order::getId).collect(toList());
+        statistics.clear();
+
+        mvc.perform(post("/api/v1/orders:batchDelete")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(ids)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted").value(orderCount));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void updateOrderStatementsDontGrowWithChangedProducts() throws Exception {
+        List<Order> orders = saveOrders(2);
+        // the new codes are known already, their resolution runs no statement
+        catalog.resolve(products(PRODUCTS_PER_ORDER, PRODUCTS_PER_ORDER));
+        statistics.clear();
+
+        recodeProducts(orders.get(0), 1);
+        long oneProduct = statistics.getPrepareStatementCount();
+        statistics.clear();
+        recodeProducts(orders.get(1), PRODUCTS_PER_ORDER);
+
+        // the product updates go as one batch
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(oneProduct);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void productsAreStoredOncePerCode(int orderCount) {
+        saveOrders(orderCount);
+
+        List<String> codes = products(0, PRODUCTS_PER_ORDER).stream().map(Product::getCode).collect(toList());
+        assertThat(catalogProductRepository.findByCodeIn(codes)).hasSize(PRODUCTS_PER_ORDER);
+    }
+
+    private void recodeProducts(Order order, int count) throws Exception {
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (int i = 0; i < order.getProducts().size(); i++) {
+            Product product = order.getProducts().get(i);
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", product.getId());
+            // named as in the catalog, see products
+            dto.put("name", i < count ? "product " + (PRODUCTS_PER_ORDER + i) : product.getName());
+            dto.put("code", i < count ? String.format("%013d", PRODUCTS_PER_ORDER + i) : product.getCode());
+            products.add(dto);
+        }
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"products\":" + objectMapper.writeValueAsString(products) + "}"))
+            .andExpect(status().isOk());
+    }
+
+    private List<Order> saveOrders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setSeller(String.format("%09d", i));
+            order.setCustomer("000000001");
+            List<Product> products = products(0, PRODUCTS_PER_ORDER);
+            catalog.resolve(products);
+            order.setProducts(products);
+            orders.add(order);
+        }
+        return orderRepository.saveAll(orders);
+    }
+
+    private static List<Product> products(int from, int count) {
+        List<Product> products = new ArrayList<>();
+        for (int j = from; j < from + count; j++) {
+            Product product = new Product();
+            product.setCatalogProduct(new CatalogProduct(String.format("%013d", j), "product " + j));
+            products.add(product);
+        }
+        return products;
+    }
+
+}
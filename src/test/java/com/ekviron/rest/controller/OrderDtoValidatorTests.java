@@ -0,0 +1,103 @@
+package com.ekviron.rest.controller;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.ProductDto;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * The hand written checks report what bean validation reports for the DTO annotations.
+ */
+class OrderDtoValidatorTests {
+
+    private final Validator validator = new OrderDtoValidator();
+    private final Validator beanValidator =
+        new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void validOrderPasses() {
+        assertThat(violations(validator, order(o -> { }))).isEmpty();
+    }
+
+    @Test
+    void reportsLikeBeanValidation() {
+        assertSameViolations(o -> o.setSeller(null));
+        assertSameViolations(o -> o.setSeller(""));
+        assertSameViolations(o -> o.setSeller("   "));
+        assertSameViolations(o -> o.setSeller("         "));
+        assertSameViolations(o -> o.setCustomer("1234567890"));
+        assertSameViolations(o -> o.setProducts(null));
+        assertSameViolations(o -> o.setProducts(Collections.emptyList()));
+        assertSameViolations(o -> o.getProducts().get(1).setName(" "));
+        assertSameViolations(o -> o.getProducts().get(1).setCode("123"));
+        assertSameViolations(o -> o.getProducts().get(0).setCode(null));
+        assertSameViolations(o -> {
+            o.setSeller("1");
+            o.getProducts().get(0).setName(null);
+            o.getProducts().get(1).setCode("");
+        });
+    }
+
+    @Test
+    void nullProductsAreSkippedLikeBeanValidation() {
+        assertThat(violations(validator, order(o -> o.getProducts().add(null)))).isEmpty();
+        assertThat(violations(beanValidator, order(o -> o.getProducts().add(null)))).isEmpty();
+    }
+
+    @Test
+    void messagesAreBeanValidationDefaults() {
+        assertThat(violations(validator, order(o -> o.getProducts().get(0).setCode(""))))
+            .containsExactlyInAnyOrder(
+                "products[0].code Size size must be between 13 and 13",
+                "products[0].code NotBlank must not be blank");
+    }
+
+    private void assertSameViolations(Consumer<OrderDto> change) {
+        assertThat(codes(violations(validator, order(change))))
+            .isEqualTo(codes(violations(beanValidator, order(change))))
+            .isNotEmpty();
+    }
+
+    private static Set<String> violations(Validator validator, OrderDto order) {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(order, "orderDto");
+        validator.validate(order, result);
+        return result.getFieldErrors().stream()
+            .map(error -> error.getField() + " " + error.getCode() + " " + error.getDefaultMessage())
+            .collect(toSet());
+    }
+
+    // messages of bean validation depend on the default locale
+    private static Set<String> codes(Set<String> violations) {
+        return violations.stream()
+            .map(violation -> violation.substring(0, violation.indexOf(' ', violation.indexOf(' ') + 1)))
+            .collect(toSet());
+    }
+
+    private static OrderDto order(Consumer<OrderDto> change) {
+        OrderDto order = new OrderDto();
+        order.setSeller("123456789");
+        order.setCustomer("987654321");
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ProductDto product = new ProductDto();
+            product.setName("product " + i);
+            product.setCode(String.format("%013d", i));
+            products.add(product);
+        }
+        order.setProducts(products);
+        change.accept(order);
+        return order;
+    }
+
+}
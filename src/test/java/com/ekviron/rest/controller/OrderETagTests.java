@@ -0,0 +1,112 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Conditional GET of orders and pages. Without a cache, a single order can only be answered from the version column
+ * or by loading it.
+ */
+@SpringBootTest(properties = "ekviron.orders.cache.type=none")
+@AutoConfigureMockMvc
+class OrderETagTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @SpyBean
+    OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedPageIsNotModified() throws Exception {
+        createOrder(mvc, ORDER);
+        String etag = mvc.perform(get("/api/v1/orders"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+
+        createOrder(mvc, ORDER.replace("987654321", "111111111"));
+        mvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void matchingOrderTagIsAnsweredFromVersion() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+        String etag = mvc.perform(get("/api/v1/orders/{id}", id))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(orderService);
+
+        mvc.perform(get("/api/v1/orders/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(orderService).findVersion(id);
+        verify(orderService, never()).findById(anyLong());
+    }
+
+    @Test
+    void tagIsWeakOnlyWhenResponseMayBeCompressed() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+
+        mvc.perform(get("/api/v1/orders/{id}", id))
+            .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")));
+        mvc.perform(get("/api/v1/orders/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")));
+    }
+
+    @Test
+    void ifMatchComparesStrongly() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+        String etag = mvc.perform(get("/api/v1/orders/{id}", id))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(patch("/api/v1/orders/{id}", id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, "W/" + etag)
+            .content("{\"customer\":\"111111111\"}"))
+            .andExpect(status().isPreconditionFailed());
+        mvc.perform(patch("/api/v1/orders/{id}", id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, etag)
+            .content("{\"customer\":\"111111111\"}"))
+            .andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Exports stream all orders as NDJSON or CSV, gzipped when the client accepts it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderExportTests {
+
+    // a code of its own, catalog names are kept across tests
+    private static final String QUOTED_ORDER = "{\"seller\":\"123456789\",\"customer\":\"111111111\","
+        + "\"products\":[{\"name\":\"cream, \\\"double\\\"\",\"code\":\"1234567890128\"}]}";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void ndjsonHasOneOrderPerLine() throws Exception {
+        Long first = id(createOrder(mvc, ORDER));
+        Long second = id(createOrder(mvc, QUOTED_ORDER));
+
+        MockHttpServletResponse response = export(get("/api/v1/orders:export"));
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], OrderDto.class).getId()).isEqualTo(first);
+        assertThat(objectMapper.readValue(lines[1], OrderDto.class).getProducts().get(0).getName())
+            .isEqualTo("cream, \"double\"");
+        assertThat(objectMapper.readValue(lines[1], OrderDto.class).getId()).isEqualTo(second);
+    }
+
+    @Test
+    void csvHasOneProductPerLineQuotedWhereNeeded() throws Exception {
+        Long id = id(createOrder(mvc, QUOTED_ORDER));
+
+        MockHttpServletResponse response = export(get("/api/v1/orders:export").param("format", "csv"));
+
+        assertThat(response.getContentType()).startsWith("text/csv");
+        String[] lines = response.getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("order_id,seller,customer,version,product_id,product_name,product_code");
+        assertThat(lines[1]).startsWith(id + ",123456789,111111111,")
+            .endsWith(",\"cream, \"\"double\"\"\",1234567890128");
+    }
+
+    @Test
+    void exportIsGzippedWhenAccepted() throws Exception {
+        createOrder(mvc, ORDER);
+        String plain = export(get("/api/v1/orders:export")).getContentAsString();
+
+        MockHttpServletResponse response = export(get("/api/v1/orders:export")
+            .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(plain);
+    }
+
+    @Test
+    void exportIsNotGzippedWhenRefused() throws Exception {
+        createOrder(mvc, ORDER);
+
+        MockHttpServletResponse response = export(get("/api/v1/orders:export")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).startsWith("{");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "gzip|true",
+        "GZIP ; q=1|true",
+        "x-gzip|true",
+        "deflate, gzip;q=0.001|true",
+        "*|true",
+        "*;q=0.5, br|true",
+        "gzip;q=0|false",
+        "gzip;q=0.0, *|false",
+        "*;q=0|false",
+        "deflate, br|false",
+        "gzip;q=x|false"
+    })
+    void acceptEncodingIsParsedWithQValues(String acceptEncoding, boolean gzip) {
+        assertThat(OrderControllerV1Impl.acceptsGzip(acceptEncoding)).isEqualTo(gzip);
+    }
+
+    private MockHttpServletResponse export(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION))
+            .andReturn().getResponse();
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static com.ekviron.rest.OrderFixtures.postOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.model.OrderEvent;
+import com.ekviron.rest.repository.OrderEventRepository;
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.service.OrderEventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Order changes reach the feed through the outbox written by the same transaction, on the embedded database.
+ */
+@SpringBootTest(properties = "ekviron.orders.feed.poll-interval=50ms")
+@AutoConfigureMockMvc
+class OrderFeedTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderEventRepository orderEventRepository;
+
+    @Autowired
+    OrderEventService orderEventService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        orderEventRepository.deleteAll();
+    }
+
+    @Test
+    void createAndDeleteAreFollowedInOrder() throws Exception {
+        Long id = id(createOrder(mvc, ORDER));
+        mvc.perform(delete("/api/v1/orders/{id}", id)).andExpect(status().isOk());
+        orderEventService.sequence();
+
+        MvcResult result = mvc.perform(get("/api/v1/orders:feed").param("wait", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.events.length()").value(2))
+            .andExpect(jsonPath("$.events[0].type").value("CREATED"))
+            .andExpect(jsonPath("$.events[0].orderId").value(id))
+            .andExpect(jsonPath("$.events[1].type").value("DELETED"))
+            .andExpect(jsonPath("$.events[1].orderId").value(id));
+    }
+
+    @Test
+    void waitingRequestGetsNextEvent() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/orders:feed").param("wait", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        Long id = id(createOrder(mvc, ORDER));
+
+        result.getAsyncResult(5_000);
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.events.length()").value(1))
+            .andExpect(jsonPath("$.events[0].orderId").value(id));
+    }
+
+    @Test
+    void failedCreateWritesNoEvent() throws Exception {
+        createOrder(mvc, ORDER);
+        mvc.perform(postOrder(ORDER))
+            .andExpect(status().isConflict());
+        orderEventService.sequence();
+
+        MvcResult result = mvc.perform(get("/api/v1/orders:feed").param("wait", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+            .andExpect(jsonPath("$.events.length()").value(1));
+    }
+
+    @Test
+    void emptyFeedReturnsOffsetAfterWait() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/orders:feed").param("after", "42").param("wait", "1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        result.getAsyncResult(5_000);
+        mvc.perform(asyncDispatch(result))
+            .andExpect(jsonPath("$.events.length()").value(0))
+            .andExpect(jsonPath("$.next").value(42));
+    }
+
+    @Test
+    void eventCommittedLateIsNotSkipped() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() ->
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Order order = new Order();
+                order.setId(0L);
+                orderEventService.recordCreated(order);
+                recorded.countDown();
+                await(commit);
+            }));
+        await(recorded);
+
+        Long id = id(createOrder(mvc, ORDER));
+        orderEventService.sequence();
+        MvcResult first = mvc.perform(get("/api/v1/orders:feed").param("wait", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String page = mvc.perform(asyncDispatch(first))
+            .andExpect(jsonPath("$.events.length()").value(1))
+            .andExpect(jsonPath("$.events[0].orderId").value(id))
+            .andReturn().getResponse().getContentAsString();
+        long next = objectMapper.readTree(page).get("next").asLong();
+
+        commit.countDown();
+        late.get(5, TimeUnit.SECONDS);
+        orderEventService.sequence();
+        MvcResult second = mvc.perform(get("/api/v1/orders:feed").param("after", String.valueOf(next))
+            .param("wait", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(second))
+            .andExpect(jsonPath("$.events.length()").value(1))
+            .andExpect(jsonPath("$.events[0].orderId").value(0));
+
+        // the late event took its id first, its offset still comes after the one already read
+        OrderEvent lateEvent = orderEventRepository.findAll().stream()
+            .filter(event -> event.getOrderId() == 0L)
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+        assertThat(lateEvent.getFeedOffset()).isGreaterThan(next);
+        assertThat(orderEventRepository.findAll()).anyMatch(event -> event.getId() > lateEvent.getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
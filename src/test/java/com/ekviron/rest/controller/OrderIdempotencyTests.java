@@ -0,0 +1,91 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.id;
+import static com.ekviron.rest.OrderFixtures.postOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Retries of an order creation with the same Idempotency-Key get the first result, per client.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderIdempotencyTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    // the store outlives the tests, every test has keys of its own
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void retryGetsFirstResult() throws Exception {
+        Long id = id(create(key, ORDER, "127.0.0.1").andExpect(status().isOk()).andReturn());
+
+        create(key, ORDER, "127.0.0.1")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id));
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForOtherOrderIsRejected() throws Exception {
+        create(key, ORDER, "127.0.0.1").andExpect(status().isOk());
+
+        create(key, ORDER.replace("987654321", "111111111"), "127.0.0.1")
+            .andExpect(status().isUnprocessableEntity());
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedCreationCanBeRetried() throws Exception {
+        Long taken = id(create(UUID.randomUUID().toString(), ORDER, "127.0.0.1").andReturn());
+        create(key, ORDER, "127.0.0.1").andExpect(status().isConflict());
+
+        mvc.perform(delete("/api/v1/orders/{id}", taken)).andExpect(status().isOk());
+        Long id = id(create(key, ORDER, "127.0.0.1").andExpect(status().isOk()).andReturn());
+
+        assertThat(id).isNotEqualTo(taken);
+    }
+
+    @Test
+    void keysAreScopedByClient() throws Exception {
+        create(key, ORDER, "10.0.0.1").andExpect(status().isOk());
+
+        // the same key of other clients is neither a reuse nor a retry
+        create(key, ORDER.replace("987654321", "111111111"), "10.0.0.2").andExpect(status().isOk());
+        create(key, ORDER, "10.0.0.3").andExpect(status().isConflict());
+    }
+
+    private ResultActions create(String idempotencyKey, String order, String address) throws Exception {
+        return mvc.perform(postOrder(order)
+            .with(request -> {
+                request.setRemoteAddr(address);
+                return request;
+            })
+            .header("Idempotency-Key", idempotencyKey));
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.ekviron.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.service.OrderService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Offloaded handlers on a pool of one thread with one queue slot, so a third request finds the pool full.
+ */
+@SpringBootTest(properties = {
+    "ekviron.execution.mode=offload",
+    "ekviron.execution.pool-size=1",
+    "ekviron.execution.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+class OrderOffloadTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @SpyBean
+    OrderService orderService;
+
+    @Test
+    void handlerRunsOnPoolAndFullPoolRejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> handlerThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            handlerThread.set(Thread.currentThread().getName());
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(orderService).getOrdersBySeller(anyString(), anyLong(), anyInt());
+
+        MvcResult busy = mvc.perform(get("/api/v1/sellers/{seller}/orders", "123456789"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult queued = mvc.perform(get("/api/v1/sellers/{seller}/orders", "123456789"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // rejected on the container thread, the request never goes async
+        mvc.perform(get("/api/v1/sellers/{seller}/orders", "123456789"))
+            .andExpect(request().asyncNotStarted())
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.error.message").value("Service is overloaded, retry later"));
+
+        release.countDown();
+        for (MvcResult result : new MvcResult[] {busy, queued}) {
+            result.getAsyncResult(5_000);
+            mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders").isArray());
+        }
+        assertThat(handlerThread.get()).startsWith("order-handler-");
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.OrderPageDto;
+import com.ekviron.rest.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Keyset pages: every order is listed once in id order, the last page has no next cursor, and cursors or limits the
+ * API did not hand out are rejected.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderPaginationTests {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderRepository.deleteAll();
+        ids.clear();
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(id(createOrder(mvc, ORDER.replace("987654321", String.format("%09d", i)))));
+        }
+    }
+
+    @Test
+    void pagesListEveryOrderOnceInIdOrder() throws Exception {
+        assertThat(traverse("/api/v1/orders", 2)).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void pagesOfSellerListEveryOrderOnceInIdOrder() throws Exception {
+        assertThat(traverse("/api/v1/sellers/123456789/orders", 2)).containsExactlyElementsOf(ids);
+        mvc.perform(get("/api/v1/sellers/{seller}/orders", "111111111"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(0))
+            .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() throws Exception {
+        // the last page is full, still nothing follows it
+        assertThat(traverse("/api/v1/orders", ORDERS)).containsExactlyElementsOf(ids);
+
+        mvc.perform(get("/api/v1/orders").param("limit", String.valueOf(ORDERS - 1)))
+            .andExpect(jsonPath("$.orders.length()").value(ORDERS - 1))
+            .andExpect(jsonPath("$.next").exists());
+        mvc.perform(get("/api/v1/orders").param("limit", String.valueOf(ORDERS)))
+            .andExpect(jsonPath("$.orders.length()").value(ORDERS))
+            .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void cursorSkipsDeletedOrders() throws Exception {
+        OrderPageDto first = page(get("/api/v1/orders").param("limit", "2"));
+        orderRepository.deleteById(ids.get(2));
+
+        OrderPageDto second = page(get("/api/v1/orders").param("limit", "2").param("after", first.getNext()));
+
+        assertThat(second.getOrders()).extracting(OrderDto::getId).containsExactly(ids.get(3), ids.get(4));
+    }
+
+    // not base64, then "id:", "id:abc" and "xx:1" encoded
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "aWQ6", "aWQ6YWJj", "eHg6MQ"})
+    void invalidCursorIsRejected(String cursor) throws Exception {
+        mvc.perform(get("/api/v1/orders").param("after", cursor))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.message").value("Cursor '" + cursor + "' is invalid"));
+        mvc.perform(get("/api/v1/customers/{customer}/orders", "987654321").param("after", cursor))
+            .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, 1001})
+    void limitOutOfBoundsIsRejected(int limit) throws Exception {
+        mvc.perform(get("/api/v1/orders").param("limit", String.valueOf(limit))).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/v1/sellers/{seller}/orders", "123456789").param("limit", String.valueOf(limit)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void limitWithinBoundsIsAccepted(int limit) throws Exception {
+        mvc.perform(get("/api/v1/orders").param("limit", String.valueOf(limit)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(Math.min(limit, ORDERS)));
+    }
+
+    /**
+     * Follows the next cursors from the first page to the last.
+     */
+    private List<Long> traverse(String path, int limit) throws Exception {
+        List<Long> listed = new ArrayList<>();
+        String next = null;
+        do {
+            MockHttpServletRequestBuilder request = get(path).param("limit", String.valueOf(limit));
+            if (next != null) {
+                request.param("after", next);
+            }
+            OrderPageDto page = page(request);
+            assertThat(page.getOrders()).hasSizeLessThanOrEqualTo(limit);
+            page.getOrders().forEach(order -> listed.add(order.getId()));
+            next = page.getNext();
+        } while (next != null && listed.size() <= ORDERS);
+        return listed;
+    }
+
+    private OrderPageDto page(MockHttpServletRequestBuilder request) throws Exception {
+        String response = mvc.perform(request)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, OrderPageDto.class);
+    }
+
+}
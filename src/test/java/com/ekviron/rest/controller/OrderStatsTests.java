@@ -0,0 +1,119 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.ORDER_WITH_TWO_PRODUCTS;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.mapper.OrderMapper;
+import com.ekviron.rest.model.Order;
+import com.ekviron.rest.repository.OrderRepository;
+import com.ekviron.rest.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Statistics are computed over all orders and reused until this node commits a write or they get too old.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderStatsTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderMapper orderMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void statisticsCoverAllOrders() throws Exception {
+        saveWithoutProducts("000000001");
+        createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        createOrder(mvc, ORDER.replace("987654321", "111111111"));
+
+        mvc.perform(get("/api/v1/orders:stats").param("top", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders").value(3))
+            .andExpect(jsonPath("$.products").value(3))
+            .andExpect(jsonPath("$.topSellers['123456789']").value(2))
+            .andExpect(jsonPath("$.topSellers.length()").value(1))
+            .andExpect(jsonPath("$.topProductCodes['1234567890123']").value(2))
+            .andExpect(jsonPath("$.ordersByProductCount['0']").value(1))
+            .andExpect(jsonPath("$.ordersByProductCount['1']").value(1))
+            .andExpect(jsonPath("$.ordersByProductCount['2']").value(1));
+    }
+
+    @Test
+    void statisticsAreReusedUntilLocalWrite() throws Exception {
+        createOrder(mvc, ORDER);
+        mvc.perform(get("/api/v1/orders:stats")).andExpect(jsonPath("$.orders").value(1));
+
+        // not written through the service, nothing tells the statistics are outdated
+        saveWithoutProducts("000000001");
+        mvc.perform(get("/api/v1/orders:stats")).andExpect(jsonPath("$.orders").value(1));
+
+        createOrder(mvc, ORDER.replace("987654321", "111111111"));
+        mvc.perform(get("/api/v1/orders:stats")).andExpect(jsonPath("$.orders").value(3));
+    }
+
+    @Test
+    void statisticsComputedBeforeCommitAreNotReused() throws Exception {
+        createOrder(mvc, ORDER);
+        Order order = orderMapper.orderDtoToOrder(
+            objectMapper.readValue(ORDER.replace("987654321", "111111111"), OrderDto.class));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderService.create(order);
+            // computed on another connection while the order is not committed yet
+            CompletableFuture.runAsync(() -> expectOrders(1)).join();
+        });
+
+        expectOrders(2);
+    }
+
+    private void expectOrders(int orders) {
+        try {
+            mvc.perform(get("/api/v1/orders:stats")).andExpect(jsonPath("$.orders").value(orders));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void saveWithoutProducts(String seller) {
+        Order order = new Order();
+        order.setSeller(seller);
+        order.setCustomer("000000001");
+        order.setProducts(new ArrayList<>());
+        orderRepository.save(order);
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.ekviron.rest.controller;
+
+import static com.ekviron.rest.OrderFixtures.ORDER_WITH_TWO_PRODUCTS;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.postOrder;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.api.dto.OrderDto;
+import com.ekviron.rest.api.dto.ProductDto;
+import com.ekviron.rest.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Updates keep the rows of unchanged products and are checked against the version in If-Match. Product names must be
+ * the ones of the catalog, only a changed code changes a product.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderUpdateTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void putWritesOnlyDifferingProducts() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        OrderDto order = read(created);
+        long version = version(created);
+        ProductDto milk = order.getProducts().get(0);
+        milk.setName("oat milk");
+        milk.setCode("1234567890126");
+        ProductDto cheese = product("cheese", "1234567890125");
+        order.setProducts(Arrays.asList(milk, cheese));
+
+        MvcResult result = mvc.perform(put("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(order)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, OrderETags.of(order.getId(), version + 1)))
+            .andReturn();
+
+        OrderDto updated = read(result);
+        assertThat(version(result)).isEqualTo(version + 1);
+        assertThat(updated.getProducts()).extracting(ProductDto::getName)
+            .containsExactlyInAnyOrder("oat milk", "cheese");
+        assertThat(updated.getProducts()).filteredOn(product -> product.getName().equals("oat milk"))
+            .extracting(ProductDto::getId).containsExactly(milk.getId());
+    }
+
+    @Test
+    void productsWithoutIdsAreMatchedByCode() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        OrderDto order = read(created);
+        ProductDto bread = product("bread", "1234567890124");
+        ProductDto milk = product("milk", "1234567890123");
+
+        MvcResult result = mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"products\":" + objectMapper.writeValueAsString(Arrays.asList(bread, milk)) + "}"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        // nothing differs, nothing is written
+        assertThat(version(result)).isEqualTo(version(created));
+        assertThat(read(result).getProducts()).extracting(ProductDto::getId)
+            .containsExactlyInAnyOrderElementsOf(order.getProducts().stream().map(ProductDto::getId).collect(toList()));
+    }
+
+    @Test
+    void changingProductCodeRaisesOrderVersion() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        OrderDto order = read(created);
+        order.getProducts().get(1).setName("rye bread");
+        order.getProducts().get(1).setCode("1234567890127");
+
+        MvcResult result = mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"products\":" + objectMapper.writeValueAsString(order.getProducts()) + "}"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        assertThat(version(result)).isEqualTo(version(created) + 1);
+        assertThat(read(result).getProducts()).extracting(ProductDto::getName)
+            .containsExactlyInAnyOrder("milk", "rye bread");
+    }
+
+    @Test
+    void otherNamesOfKnownCodesAreRejected() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        OrderDto order = read(created);
+        order.getProducts().forEach(product -> product.setName("renamed"));
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"products\":" + objectMapper.writeValueAsString(order.getProducts()) + "}"))
+            .andExpect(status().isUnprocessableEntity());
+        mvc.perform(postOrder(ORDER_WITH_TWO_PRODUCTS.replace("987654321", "111111111").replace("milk", "renamed")))
+            .andExpect(status().isUnprocessableEntity());
+
+        mvc.perform(get("/api/v1/orders/{id}", order.getId()))
+            .andExpect(jsonPath("$.version").value(version(created)))
+            .andExpect(jsonPath("$.products[*].name").value(containsInAnyOrder("milk", "bread")));
+    }
+
+    @Test
+    void patchKeepsAbsentFields() throws Exception {
+        OrderDto order = read(createOrder(mvc, ORDER_WITH_TWO_PRODUCTS));
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"customer\":\"111111111\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.seller").value("123456789"))
+            .andExpect(jsonPath("$.customer").value("111111111"))
+            .andExpect(jsonPath("$.products.length()").value(2));
+
+        mvc.perform(get("/api/v1/orders/{id}", order.getId()))
+            .andExpect(jsonPath("$.customer").value("111111111"));
+    }
+
+    @Test
+    void patchToBlankIsRejected() throws Exception {
+        OrderDto order = read(createOrder(mvc, ORDER_WITH_TWO_PRODUCTS));
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"seller\":\"         \"}"))
+            .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/v1/orders/{id}", order.getId()))
+            .andExpect(jsonPath("$.seller").value("123456789"));
+    }
+
+    @Test
+    void staleIfMatchIsRejected() throws Exception {
+        MvcResult created = createOrder(mvc, ORDER_WITH_TWO_PRODUCTS);
+        OrderDto order = read(created);
+        String etag = OrderETags.of(order.getId(), version(created));
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"customer\":\"111111111\"}"))
+            .andExpect(status().isOk());
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"customer\":\"222222222\"}"))
+            .andExpect(status().isPreconditionFailed());
+
+        mvc.perform(get("/api/v1/orders/{id}", order.getId()))
+            .andExpect(jsonPath("$.customer").value("111111111"));
+    }
+
+    @Test
+    void updateToTakenSellerAndCustomerConflicts() throws Exception {
+        OrderDto order = read(createOrder(mvc, ORDER_WITH_TWO_PRODUCTS));
+        createOrder(mvc, ORDER_WITH_TWO_PRODUCTS.replace("987654321", "111111111"));
+
+        mvc.perform(patch("/api/v1/orders/{id}", order.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"customer\":\"111111111\"}"))
+            .andExpect(status().isConflict());
+    }
+
+    private OrderDto read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), OrderDto.class);
+    }
+
+    // read only, not bound to OrderDto
+    private long version(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("version").asLong();
+    }
+
+    private static ProductDto product(String name, String code) {
+        ProductDto product = new ProductDto();
+        product.setName(name);
+        product.setCode(code);
+        return product;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.ekviron.rest.errorhandling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class ErrorTemplateTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void rendersLikeJackson() throws IOException {
+        assertSameJson(NOT_FOUND, "Order was not found for parameters {id=42}", null);
+        assertSameJson(BAD_REQUEST, "Malformed JSON request", "Unexpected character ('\"'): \\ at \n line 1");
+    }
+
+    @Test
+    void rendersTimestampInErrorFormat() throws IOException {
+        JsonNode error = objectMapper.readTree(new ErrorTemplate(NOT_FOUND).render("gone", null)).get("error");
+
+        assertThat(error.get("timestamp").asText()).matches("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}:\\d{2}");
+    }
+
+    private void assertSameJson(HttpStatus status, String message, String debugMessage) throws IOException {
+        Error error = new Error(status);
+        error.setMessage(message);
+        error.setDebugMessage(debugMessage);
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(error));
+        JsonNode actual = objectMapper.readTree(new ErrorTemplate(status).render(message, debugMessage));
+
+        // timestamps may fall into different seconds
+        ((ObjectNode) expected.get("error")).remove("timestamp");
+        ((ObjectNode) actual.get("error")).remove("timestamp");
+        assertThat(actual).isEqualTo(expected);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.ekviron.rest.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = THRESHOLD / 2;
+    private static final long SLOW = THRESHOLD * 2;
+
+    @Test
+    void requestsOverLimitAreRefused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(FAST, System.nanoTime(), false);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void fullWindowOfFastResponsesRaisesLimitByOne() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, THRESHOLD);
+
+        for (int i = 0; i < 3; i++) {
+            release(limiter, FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        release(limiter, FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // not above the max
+        for (int i = 0; i < 10; i++) {
+            release(limiter, FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void slowOrFailedResponseCutsLimitOncePerThreshold() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, THRESHOLD);
+        long now = System.nanoTime();
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, now, false);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, now + THRESHOLD / 2, true);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, now + THRESHOLD + 1, true);
+        assertThat(limiter.getLimit()).isEqualTo(81);
+    }
+
+    @Test
+    void limitIsNotCutBelowMin() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 9, 20, THRESHOLD);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, now + i * (THRESHOLD + 1), false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter limiter, long latency, boolean failed) {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(latency, System.nanoTime(), failed);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ekviron.rest.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ekviron.rest.config.LimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestLimitFilterTests {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void clientOverRateGets429WithRetryAfter() throws Exception {
+        RequestLimitFilter filter = new RequestLimitFilter(properties(1, 1, 10), meterRegistry);
+
+        assertThat(perform(filter, request("192.168.0.1", null)).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, request("192.168.0.1", null));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(perform(filter, request("192.168.0.2", null)).getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(RequestLimitFilter.REJECTIONS_METRIC).tag("reason", "client_rate").counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientHeaderOfUntrustedAddressIsIgnored() throws Exception {
+        RequestLimitFilter filter = new RequestLimitFilter(properties(1, 1, 10), meterRegistry);
+
+        assertThat(perform(filter, request("192.168.0.1", "a")).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, request("192.168.0.1", "b")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void clientHeaderOfTrustedProxyNamesClient() throws Exception {
+        RequestLimitFilter filter = new RequestLimitFilter(properties(1, 1, 10), meterRegistry);
+
+        assertThat(perform(filter, request(PROXY, "a")).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, request(PROXY, "b")).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, request(PROXY, "a")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void requestOverConcurrencyLimitGets503() throws Exception {
+        RequestLimitFilter filter = new RequestLimitFilter(properties(1000, 1000, 1), meterRegistry);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain holdingPermit = (request, response) ->
+            nested[0] = perform(filter, request("192.168.0.2", null));
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("192.168.0.1", null), outer, holdingPermit);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested[0].getStatus()).isEqualTo(503);
+        assertThat(nested[0].getHeader(HttpHeaders.RETRY_AFTER)).isNull();
+        // the permit is back after the request
+        assertThat(perform(filter, request("192.168.0.2", null)).getStatus()).isEqualTo(200);
+    }
+
+    private static LimitProperties properties(double permitsPerSecond, int burst, int concurrency) {
+        LimitProperties properties = new LimitProperties();
+        properties.getClient().setPermitsPerSecond(permitsPerSecond);
+        properties.getClient().setBurst(burst);
+        properties.getConcurrency().setInitialLimit(concurrency);
+        properties.getConcurrency().setMinLimit(concurrency);
+        properties.getConcurrency().setMaxLimit(concurrency);
+        properties.setTrustedProxies(Collections.singleton(PROXY));
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String address, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.setRemoteAddr(address);
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(RequestLimitFilter filter, MockHttpServletRequest request)
+        throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+}
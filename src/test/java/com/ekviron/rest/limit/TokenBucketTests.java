@@ -0,0 +1,51 @@
+package com.ekviron.rest.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void fullBucketAllowsBurstAtOnce() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void permitsRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        assertThat(bucket.tryAcquire(INTERVAL / 2)).isEqualTo(INTERVAL / 2);
+        assertThat(bucket.tryAcquire(INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(INTERVAL)).isEqualTo(INTERVAL);
+        // a quiet period refills no more than the burst
+        long later = TimeUnit.SECONDS.toNanos(10);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refusedPermitIsNotTaken() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.tryAcquire(0);
+
+        // retrying early doesn't push the wait further out
+        assertThat(bucket.tryAcquire(0)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(0)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(INTERVAL)).isZero();
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ekviron.rest.metrics;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ekviron.rest.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Meters recorded for requests to the order endpoints. The registry lives as long as the cached context, so the
+ * tests compare counts before and after their requests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderMetricsTests {
+
+    private static final String ORDER_URI = "/api/v1/orders/{id}";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void operationsAreTimedByOutcome() throws Exception {
+        long created = timerCount("OrderService", "create", "success");
+        long notFound = timerCount("OrderControllerV1Impl", "getOrderById", "EntityNotFoundException");
+
+        createOrder(mvc, ORDER);
+        mvc.perform(get(ORDER_URI, 0)).andExpect(status().isNotFound());
+
+        assertThat(timerCount("OrderService", "create", "success")).isEqualTo(created + 1);
+        assertThat(timerCount("OrderControllerV1Impl", "getOrderById", "EntityNotFoundException"))
+            .isEqualTo(notFound + 1);
+    }
+
+    @Test
+    void queriesAreRecordedByEndpoint() throws Exception {
+        DistributionSummary before = registry.find(QueryCountInterceptor.METRIC)
+            .tags("method", "GET", "uri", ORDER_URI)
+            .summary();
+        long count = before != null ? before.count() : 0;
+        double total = before != null ? before.totalAmount() : 0;
+
+        mvc.perform(get(ORDER_URI, 0)).andExpect(status().isNotFound());
+
+        DistributionSummary after = registry.get(QueryCountInterceptor.METRIC)
+            .tags("method", "GET", "uri", ORDER_URI)
+            .summary();
+        assertThat(after.count()).isEqualTo(count + 1);
+        assertThat(after.totalAmount()).isGreaterThan(total);
+    }
+
+    @Test
+    void errorResponsesAreCounted() throws Exception {
+        double notFound = errorCount("404", "EntityNotFoundException");
+
+        mvc.perform(get(ORDER_URI, 0)).andExpect(status().isNotFound());
+
+        assertThat(errorCount("404", "EntityNotFoundException")).isEqualTo(notFound + 1);
+    }
+
+    private long timerCount(String type, String method, String outcome) {
+        Timer timer = registry.find(OrderOperationMetricsAspect.METRIC)
+            .tags("class", type, "method", method, "outcome", outcome)
+            .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double errorCount(String status, String exception) {
+        Counter counter = registry.find("ekviron.errors")
+            .tags("status", status, "exception", exception)
+            .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+}
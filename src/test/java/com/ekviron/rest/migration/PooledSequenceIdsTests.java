@@ -0,0 +1,124 @@
+package com.ekviron.rest.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pooled sequences on databases Hibernate created before migrations, baselined at version 1 and migrated through all
+ * later versions. Each test uses its own in-memory database.
+ */
+class PooledSequenceIdsTests {
+
+    private static final String URL = "jdbc:h2:mem:pooled_sequence_ids";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // kept open so the in-memory database lives until the test ends
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table order_t (id bigint generated by default as identity, "
+                + "seller varchar(9), customer varchar(9), primary key (id))");
+            statement.execute("create table product_t (id bigint not null, name varchar(255), code varchar(13), "
+                + "order_id bigint, primary key (id))");
+            // constraint names as Hibernate generates them
+            statement.execute("alter table order_t add constraint UKq5rbtrt0pjah4a5vp2ro8bci6 "
+                + "unique (seller, customer)");
+            statement.execute("create index order_seller_id_idx on order_t (seller, id)");
+            statement.execute("create index order_customer_id_idx on order_t (customer, id)");
+            statement.execute("alter table product_t add constraint FKfvl7c2y8xwiyaeyjo8ak4mnb3 foreign key (order_id) "
+                + "references order_t");
+            statement.execute("create index product_code_idx on product_t (code)");
+            statement.execute("insert into order_t (id, seller, customer) values (1, '123456789', '987654321')");
+            statement.execute("insert into order_t (id, seller, customer) values (3, '123456789', '111111111')");
+            statement.execute("insert into product_t (id, name, code, order_id) "
+                + "values (120, 'milk', '1234567890123', 1)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Test
+    void productSequenceIsAlignedWhenPresent() throws SQLException {
+        execute("create sequence product_seq start with 1 increment by 50");
+
+        migrate();
+
+        assertThat(nextValue("order_seq")).isEqualTo(3 + 50);
+        assertThat(nextValue("product_seq")).isEqualTo(120 + 50);
+    }
+
+    @Test
+    void productSequenceIsCreatedWhenHibernateUsedItsDefault() throws SQLException {
+        execute("create sequence hibernate_sequence start with 1 increment by 1");
+
+        migrate();
+
+        assertThat(nextValue("order_seq")).isEqualTo(3 + 50);
+        assertThat(nextValue("product_seq")).isEqualTo(120 + 50);
+    }
+
+    @Test
+    void productsAreDeletedWithTheirOrder() throws SQLException {
+        migrate();
+
+        execute("delete from order_t where id = 1");
+
+        assertThat(count("product_t")).isZero();
+    }
+
+    private void migrate() {
+        Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration", "classpath:com/ekviron/rest/migration")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .placeholders(Collections.singletonMap(V2__Pooled_sequence_ids.ALLOCATION_SIZE_PLACEHOLDER, "50"))
+            .load()
+            .migrate();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String table) throws SQLException {
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select count(*) from " + table)
+        ) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private long nextValue(String sequence) throws SQLException {
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select next value for " + sequence)
+        ) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.ekviron.rest.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ekviron.rest.config.LimitProperties;
+import com.ekviron.rest.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lookup keys picked for read-only transactions. The pools are never started, no connection is taken.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(
+            new HikariDataSource(),
+            Arrays.asList(new HikariDataSource(), new HikariDataSource()),
+            new ReadYourWrites(Duration.ofSeconds(1), new LimitProperties()),
+            new ReplicaProperties()
+        );
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        routing.destroy();
+    }
+
+    @Test
+    void readsAreSpreadOverReplicas() {
+        assertThat(routing.determineCurrentLookupKey()).isNotEqualTo(routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readsOnOneSourceStayOnTheFirstPick() {
+        Object[] keys = ReadRouting.onOneSource(() -> new Object[] {
+            routing.determineCurrentLookupKey(),
+            routing.determineCurrentLookupKey(),
+            routing.determineCurrentLookupKey()
+        });
+
+        assertThat(keys[0]).isNotEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(keys).containsOnly(keys[0]);
+    }
+
+    @Test
+    void readsOnPrimarySkipReplicas() {
+        Object key = ReadRouting.onOneSource(() -> ReadRouting.onPrimary(routing::determineCurrentLookupKey));
+
+        assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(ReadRouting.currentPin()).isNull();
+    }
+
+}
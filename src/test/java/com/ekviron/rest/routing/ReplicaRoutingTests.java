@@ -0,0 +1,92 @@
+package com.ekviron.rest.routing;
+
+import static com.ekviron.rest.OrderFixtures.ORDER;
+import static com.ekviron.rest.OrderFixtures.createOrder;
+import static com.ekviron.rest.OrderFixtures.id;
+import static com.ekviron.rest.OrderFixtures.postOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Two embedded databases stand in for the primary and a replica. Nothing is replicated, so where an order is found
+ * tells where the read went.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+    "ekviron.replicas.enabled=true",
+    "ekviron.replicas.nodes[0].url=" + ReplicaRoutingTests.REPLICA_URL,
+    "ekviron.replicas.nodes[0].username=sa",
+    "ekviron.replicas.max-lag=1m",
+    "ekviron.limits.trusted-proxies=127.0.0.1",
+    "ekviron.orders.cache.type=none"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Autowired
+    MockMvc mvc;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        // replication would bring the schema along
+        Flyway.configure()
+            .dataSource(REPLICA_URL, "sa", "")
+            .locations("classpath:db/migration", "classpath:com/ekviron/rest/migration")
+            .load()
+            .migrate();
+    }
+
+    @Test
+    void writerReadsFromPrimaryOthersFromReplica() throws Exception {
+        Long id = id(createOrder(mvc, postOrder(ORDER).header(CLIENT_HEADER, "writer")));
+
+        mvc.perform(get("/api/v1/orders/{id}", id).header(CLIENT_HEADER, "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id));
+        mvc.perform(get("/api/v1/orders/{id}", id).header(CLIENT_HEADER, "reader"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void clientHeaderIsTakenFromTrustedProxiesOnly() throws Exception {
+        Long id = id(createOrder(mvc, postOrder(ORDER.replace("987654321", "111111111"))
+            .header(CLIENT_HEADER, "writer")));
+
+        mvc.perform(get("/api/v1/orders/{id}", id)
+            .with(request -> {
+                request.setRemoteAddr("10.0.0.1");
+                return request;
+            })
+            .header(CLIENT_HEADER, "writer"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void readsOfOthersAreServedByReplica() throws Exception {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.update("insert into order_t (id, seller, customer, version) values (1000000, '111111111', "
+            + "'222222222', 0)");
+        replica.update("insert into catalog_product (id, code, name) values (1000000, '1234567890124', 'bread')");
+        replica.update("insert into product_t (id, catalog_id, order_id) values (1000000, 1000000, 1000000)");
+
+        mvc.perform(get("/api/v1/orders/{id}", 1000000).header(CLIENT_HEADER, "reader"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.products[0].name").value("bread"));
+    }
+
+}